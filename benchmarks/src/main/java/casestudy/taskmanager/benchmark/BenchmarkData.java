@@ -0,0 +1,74 @@
+package casestudy.taskmanager.benchmark;
+
+import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.repositories.TaskRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic datasets shared by the benchmarks, built from a fixed seed so every run measures the
+ * same data. There is one parent task per 10 tasks, and half of the tasks have an earlier task as
+ * parent.
+ */
+final class BenchmarkData {
+  private static final long SEED = 42;
+
+  private BenchmarkData() {}
+
+  static List<ParentTask> parentTasks(final int taskCount) {
+    final int parentCount = parentCount(taskCount);
+    List<ParentTask> parentTaskList = new ArrayList<>(parentCount);
+    for (long i = 1; i <= parentCount; i++) {
+      parentTaskList.add(new ParentTask(i, "Parent Task " + i));
+    }
+    return parentTaskList;
+  }
+
+  static List<Task> tasks(final int taskCount) {
+    final Random random = new Random(SEED);
+    final int parentCount = parentCount(taskCount);
+    final LocalDate today = LocalDate.of(2020, 1, 1);
+
+    List<Task> taskList = new ArrayList<>(taskCount);
+    for (long i = 1; i <= taskCount; i++) {
+      final boolean isParentCollection = i == 1 || random.nextBoolean();
+      final long parentId =
+          isParentCollection ? 1 + random.nextInt(parentCount) : 1 + random.nextInt((int) i - 1);
+      Task task =
+          new Task(
+              i,
+              parentId,
+              "Task " + i,
+              today.plusDays(random.nextInt(365)),
+              today.plusDays(365 + random.nextInt(30)),
+              random.nextInt(31),
+              isParentCollection);
+      task.setId(Long.toHexString(i));
+      taskList.add(task);
+    }
+    return taskList;
+  }
+
+  /** A TaskRepository reading taskList from findAll, which is all the in-memory indexes load. */
+  static TaskRepository taskRepository(final List<Task> taskList) {
+    return (TaskRepository)
+        Proxy.newProxyInstance(
+            TaskRepository.class.getClassLoader(),
+            new Class<?>[] {TaskRepository.class},
+            (proxy, method, args) -> {
+              if ("findAll".equals(method.getName()) && method.getParameterCount() == 0) {
+                return taskList;
+              }
+              throw new UnsupportedOperationException(method.getName());
+            });
+  }
+
+  private static int parentCount(final int taskCount) {
+    return Math.max(1, taskCount / 10);
+  }
+}
@@ -0,0 +1,33 @@
+package casestudy.taskmanager.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Runs the benchmarks selected on the command line with the JMH options given there, always with
+ * the gc profiler so every result reports the allocation rate next to the score. For example
+ * {@code java -jar benchmarks/target/benchmarks.jar TaskModelJsonBenchmark -p taskCount=1000}.
+ */
+public class BenchmarkRunner {
+
+  public static void main(String[] args)
+      throws CommandLineOptionException, IOException, RunnerException {
+    final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()) {
+      // Help and list only print, they are answered by the plain JMH entry point
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+
+    final Options options =
+        new OptionsBuilder().parent(commandLineOptions).addProfiler(GCProfiler.class).build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,51 @@
+package casestudy.taskmanager.benchmark;
+
+import casestudy.taskmanager.util.DateUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DateUtil#toLocalDate(String)} as called for every date path variable and bulk import row,
+ * over a dataset of distinct dates. Each operation parses the whole dataset. The debug logging of
+ * the method is off, as configured by the logback.xml of this module.
+ *
+ * <p>Run with: {@code java -jar benchmarks/target/benchmarks.jar DateUtilBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class DateUtilBenchmark {
+
+  @Param({"1000", "100000"})
+  private int dateCount;
+
+  private final DateUtil dateUtil = new DateUtil();
+  private List<String> dateStrings;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    final LocalDate firstDate = LocalDate.of(2000, 1, 1);
+
+    dateStrings = new ArrayList<>(dateCount);
+    for (int i = 0; i < dateCount; i++) {
+      dateStrings.add(firstDate.plusDays(i).format(formatter));
+    }
+  }
+
+  @Benchmark
+  public void toLocalDate(final Blackhole blackhole) {
+    for (String dateString : dateStrings) {
+      blackhole.consume(dateUtil.toLocalDate(dateString));
+    }
+  }
+}
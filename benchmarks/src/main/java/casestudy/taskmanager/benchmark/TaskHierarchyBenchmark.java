@@ -0,0 +1,97 @@
+package casestudy.taskmanager.benchmark;
+
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskTreeNode;
+import casestudy.taskmanager.service.TaskHierarchyIndex;
+import casestudy.taskmanager.util.TaskTreeUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subtree and ancestor reads of the in-memory {@link TaskHierarchyIndex} on a task-as-parent
+ * hierarchy of 10 levels, compared with finding the children one level at a time, which is what a
+ * client walking the tree level by level costs without the index.
+ *
+ * <p>Run with: {@code java -jar benchmarks/target/benchmarks.jar TaskHierarchyBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class TaskHierarchyBenchmark {
+  private static final int LEVELS = 10;
+
+  @Param({"100000"})
+  private int taskCount;
+
+  private List<Task> taskList;
+  private TaskHierarchyIndex taskHierarchyIndex;
+  private long leafTaskId;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final Random random = new Random(42);
+    final LocalDate today = LocalDate.now();
+    final int levelSize = (taskCount - 1) / (LEVELS - 1);
+
+    // Task 1 is the root, each following level has its parent in the level above it
+    taskList = new ArrayList<>(taskCount);
+    taskList.add(new Task(1l, 1l, "Task 1", today, null, 1, true));
+    long previousLevelStart = 1;
+    long previousLevelSize = 1;
+    long taskId = 2;
+    for (int level = 1; level < LEVELS; level++) {
+      final long levelStart = taskId;
+      for (int i = 0; i < levelSize; i++, taskId++) {
+        final long parentId = previousLevelStart + random.nextInt((int) previousLevelSize);
+        taskList.add(
+            new Task(taskId, parentId, "Task " + taskId, today, null, random.nextInt(31), false));
+      }
+      previousLevelStart = levelStart;
+      previousLevelSize = levelSize;
+    }
+    leafTaskId = taskId - 1;
+
+    taskHierarchyIndex = new TaskHierarchyIndex(BenchmarkData.taskRepository(taskList));
+    taskHierarchyIndex.load();
+  }
+
+  @Benchmark
+  public TaskTreeNode indexedSubtree() {
+    List<Task> subtree = taskHierarchyIndex.findSubtree(1l, LEVELS);
+    return TaskTreeUtil.buildTree(subtree.get(0), null, subtree.subList(1, subtree.size()));
+  }
+
+  @Benchmark
+  public List<Task> indexedAncestors() {
+    List<Task> lineage = taskHierarchyIndex.findAncestors(leafTaskId, LEVELS);
+    return TaskTreeUtil.ancestorChain(lineage.get(0), lineage.subList(1, lineage.size()), LEVELS);
+  }
+
+  @Benchmark
+  public List<Task> levelByLevelSubtree() {
+    List<Task> subtree = new ArrayList<>();
+    Set<Long> level = new HashSet<>();
+    level.add(1l);
+    for (int depth = 0; depth < LEVELS && !level.isEmpty(); depth++) {
+      Set<Long> nextLevel = new HashSet<>();
+      for (Task task : taskList) {
+        if (!task.getIsParentCollection() && level.contains(task.getParentId())) {
+          subtree.add(task);
+          nextLevel.add(task.getTaskId());
+        }
+      }
+      level = nextLevel;
+    }
+    return subtree;
+  }
+}
@@ -0,0 +1,44 @@
+package casestudy.taskmanager.benchmark;
+
+import casestudy.taskmanager.models.TaskModel;
+import casestudy.taskmanager.util.TaskJoinUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the List&lt;TaskModel&gt; returned by the full list endpoints, with an
+ * ObjectMapper built with the same defaults as the one of the application.
+ *
+ * <p>Run with: {@code java -jar benchmarks/target/benchmarks.jar TaskModelJsonBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class TaskModelJsonBenchmark {
+
+  @Param({"1000", "100000"})
+  private int taskCount;
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+  private List<TaskModel> taskModelList;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    taskModelList =
+        TaskJoinUtil.joinParents(
+            BenchmarkData.parentTasks(taskCount), BenchmarkData.tasks(taskCount));
+  }
+
+  @Benchmark
+  public byte[] writeTaskModelList() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(taskModelList);
+  }
+}
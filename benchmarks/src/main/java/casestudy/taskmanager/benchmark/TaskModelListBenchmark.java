@@ -0,0 +1,109 @@
+package casestudy.taskmanager.benchmark;
+
+import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskModel;
+import casestudy.taskmanager.util.TaskJoinUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the id indexed parent join of {@link TaskJoinUtil} with the earlier per task scan of
+ * the parent lists.
+ *
+ * <p>The join is what {@code TaskManagerRepository.getTaskModelList} runs. Run with: {@code java
+ * -jar benchmarks/target/benchmarks.jar TaskModelListBenchmark}. The scan is quadratic, at 1M
+ * tasks a single invocation of it takes hours, so pass {@code -p taskCount=...} to skip the
+ * largest size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class TaskModelListBenchmark {
+
+  @Param({"1000", "10000", "100000", "1000000"})
+  private int taskCount;
+
+  private List<ParentTask> parentTaskList;
+  private List<Task> taskList;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final Random random = new Random(42);
+    final int parentCount = Math.max(1, taskCount / 10);
+    final LocalDate today = LocalDate.now();
+
+    parentTaskList = new ArrayList<>(parentCount);
+    for (long i = 1; i <= parentCount; i++) {
+      parentTaskList.add(new ParentTask(i, "Parent Task " + i));
+    }
+
+    // Half of the tasks have a parent task, the other half have an earlier task as parent
+    taskList = new ArrayList<>(taskCount);
+    for (long i = 1; i <= taskCount; i++) {
+      final boolean isParentCollection = i == 1 || random.nextBoolean();
+      final long parentId =
+          isParentCollection ? 1 + random.nextInt(parentCount) : 1 + random.nextInt((int) i - 1);
+      taskList.add(
+          new Task(
+              i,
+              parentId,
+              "Task " + i,
+              today,
+              today.plusDays(random.nextInt(30)),
+              random.nextInt(31),
+              isParentCollection));
+    }
+  }
+
+  @Benchmark
+  public List<TaskModel> indexedJoin() {
+    return TaskJoinUtil.joinParents(parentTaskList, taskList);
+  }
+
+  @Benchmark
+  public List<TaskModel> scanJoin() {
+    return taskList
+        .parallelStream()
+        .map(
+            task -> {
+              TaskModel taskModel = new TaskModel();
+              BeanUtils.copyProperties(task, taskModel);
+
+              if (task.getIsParentCollection()) {
+                Optional<ParentTask> parentTask =
+                    parentTaskList.stream()
+                        .filter(
+                            parTask ->
+                                parTask.getParentId().longValue()
+                                    == task.getParentId().longValue())
+                        .findFirst();
+
+                parentTask.ifPresent(value -> taskModel.setParentTask(value.getParentTask()));
+              } else {
+                Optional<Task> parentTaskInTask =
+                    taskList.stream()
+                        .filter(
+                            parTask ->
+                                parTask.getTaskId().longValue() == task.getParentId().longValue())
+                        .findFirst();
+
+                parentTaskInTask.ifPresent(value -> taskModel.setParentTask(value.getTask()));
+              }
+
+              return taskModel;
+            })
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,57 @@
+package casestudy.taskmanager.benchmark;
+
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskModel;
+import casestudy.taskmanager.util.TaskModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.BeanUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task to TaskModel mapping with the reflective {@link BeanUtils#copyProperties(Object, Object)},
+ * which the api used before, compared with the plain setters of {@link
+ * TaskModelMapper#toTaskModel(Task)}. Each operation maps the whole dataset.
+ *
+ * <p>Run with: {@code java -jar benchmarks/target/benchmarks.jar TaskModelMappingBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class TaskModelMappingBenchmark {
+
+  @Param({"1000", "100000"})
+  private int taskCount;
+
+  private List<Task> taskList;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    taskList = BenchmarkData.tasks(taskCount);
+  }
+
+  @Benchmark
+  public List<TaskModel> beanUtilsCopy() {
+    List<TaskModel> taskModelList = new ArrayList<>(taskList.size());
+    for (Task task : taskList) {
+      TaskModel taskModel = new TaskModel();
+      BeanUtils.copyProperties(task, taskModel);
+      taskModelList.add(taskModel);
+    }
+    return taskModelList;
+  }
+
+  @Benchmark
+  public List<TaskModel> mapperCopy() {
+    List<TaskModel> taskModelList = new ArrayList<>(taskList.size());
+    for (Task task : taskList) {
+      taskModelList.add(TaskModelMapper.toTaskModel(task));
+    }
+    return taskModelList;
+  }
+}
@@ -0,0 +1,89 @@
+package casestudy.taskmanager.benchmark;
+
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskModel;
+import casestudy.taskmanager.repositories.TaskManagerRepoImpl;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The search filter chain of /search: building the criteria of the search fields and mapping the
+ * search aggregation to the pipeline sent to Mongo, which is the work done by the api for each
+ * search before the database is reached. Each operation renders a dataset of searches mixing the
+ * name, priority range and date fields.
+ *
+ * <p>Run with: {@code java -jar benchmarks/target/benchmarks.jar TaskSearchBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class TaskSearchBenchmark {
+
+  @Param({"100", "10000"})
+  private int searchCount;
+
+  private List<TaskModel> searchList;
+  private AggregationOperationContext context;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final MongoCustomConversions conversions = new MongoCustomConversions(Collections.emptyList());
+    MongoMappingContext mappingContext = new MongoMappingContext();
+    mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+    mappingContext.afterPropertiesSet();
+    MappingMongoConverter converter =
+        new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+    converter.setCustomConversions(conversions);
+    converter.afterPropertiesSet();
+    context =
+        new TypeBasedAggregationOperationContext(
+            Task.class, mappingContext, new QueryMapper(converter));
+
+    final Random random = new Random(42);
+    final LocalDate firstDate = LocalDate.of(2020, 1, 1);
+    searchList = new ArrayList<>(searchCount);
+    for (int i = 0; i < searchCount; i++) {
+      TaskModel search = new TaskModel();
+      if (random.nextBoolean()) {
+        search.setTask("Task " + random.nextInt(searchCount));
+      }
+      if (random.nextBoolean()) {
+        search.setParentTask("Parent Task " + random.nextInt(searchCount));
+      }
+      if (random.nextBoolean()) {
+        search.setPriorityFrom(1 + random.nextInt(10));
+        search.setPriorityTo(11 + random.nextInt(20));
+      }
+      if (random.nextBoolean()) {
+        search.setStartDate(firstDate.plusDays(random.nextInt(365)));
+      }
+      searchList.add(search);
+    }
+  }
+
+  @Benchmark
+  public void searchPipeline(final Blackhole blackhole) {
+    for (TaskModel search : searchList) {
+      List<Document> pipeline = TaskManagerRepoImpl.searchAggregation(search).toPipeline(context);
+      blackhole.consume(pipeline);
+    }
+  }
+}
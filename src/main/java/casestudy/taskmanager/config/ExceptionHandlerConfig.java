@@ -1,7 +1,12 @@
 package casestudy.taskmanager.config;
 
 import casestudy.taskmanager.exception.DBException;
+import casestudy.taskmanager.exception.ServiceUnavailableException;
 import casestudy.taskmanager.exception.TaskValidationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -10,6 +15,7 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 @ControllerAdvice
+@Profile("!reactive")
 public class ExceptionHandlerConfig extends ResponseEntityExceptionHandler {
   @ExceptionHandler(TaskValidationException.class)
   public final ResponseEntity<String> handleTaskValidationException(
@@ -18,12 +24,27 @@ public class ExceptionHandlerConfig extends ResponseEntityExceptionHandler {
     return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
   }
 
+  @ExceptionHandler({JsonProcessingException.class, RuntimeJsonMappingException.class})
+  public final ResponseEntity<String> handleJsonException(Exception ex, WebRequest request) {
+
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+  }
+
   @ExceptionHandler(DBException.class)
   public final ResponseEntity<String> handleDBException(DBException ex, WebRequest request) {
 
     return new ResponseEntity<>(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
+  @ExceptionHandler(ServiceUnavailableException.class)
+  public final ResponseEntity<String> handleServiceUnavailableException(
+      ServiceUnavailableException ex, WebRequest request) {
+
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+        .body(ex.getMessage());
+  }
+
   @ExceptionHandler(Exception.class)
   public final ResponseEntity<String> handleAllOtherException(Exception ex, WebRequest request) {
 
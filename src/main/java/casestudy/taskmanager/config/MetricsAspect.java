@@ -0,0 +1,92 @@
+package casestudy.taskmanager.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Times every call of the TaskManagerService, of the repositories and of the sequence generator,
+ * and records the size of the collections returned by the repositories.
+ *
+ * <p>Meters are tagged by class and method, and the timers are tagged with the exception thrown,
+ * if any. Percentile histograms are enabled for them in application.yml.
+ */
+@Aspect
+@Component
+public class MetricsAspect {
+  public static final String SERVICE_TIMER = "taskmanager.service";
+  public static final String REPOSITORY_TIMER = "taskmanager.repository";
+  public static final String REPOSITORY_RESULT_SIZE = "taskmanager.repository.result.size";
+  public static final String SEQUENCE_TIMER = "taskmanager.sequence";
+
+  private final MeterRegistry meterRegistry;
+
+  public MetricsAspect(final MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Around("execution(public * casestudy.taskmanager.service.TaskManagerService.*(..))")
+  public Object timeService(final ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(SERVICE_TIMER, joinPoint, false);
+  }
+
+  @Around(
+      "this(casestudy.taskmanager.repositories.TaskRepository)"
+          + " || this(casestudy.taskmanager.repositories.ParentTaskRepository)"
+          + " || this(casestudy.taskmanager.repositories.TaskManagerRepository)")
+  public Object timeRepository(final ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(REPOSITORY_TIMER, joinPoint, true);
+  }
+
+  @Around("execution(public * casestudy.taskmanager.util.SequenceGeneratorUtil.*(..))")
+  public Object timeSequence(final ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(SEQUENCE_TIMER, joinPoint, false);
+  }
+
+  private Object time(
+      final String timerName, final ProceedingJoinPoint joinPoint, final boolean recordSize)
+      throws Throwable {
+    final String className = className(joinPoint);
+    final String methodName = joinPoint.getSignature().getName();
+    final Timer.Sample sample = Timer.start(meterRegistry);
+    String exception = "none";
+
+    try {
+      Object result = joinPoint.proceed();
+      if (recordSize && result instanceof Collection<?> collection) {
+        DistributionSummary.builder(REPOSITORY_RESULT_SIZE)
+            .tag("class", className)
+            .tag("method", methodName)
+            .register(meterRegistry)
+            .record(collection.size());
+      }
+      return result;
+    } catch (Throwable ex) {
+      exception = ex.getClass().getSimpleName();
+      throw ex;
+    } finally {
+      sample.stop(
+          Timer.builder(timerName)
+              .tag("class", className)
+              .tag("method", methodName)
+              .tag("exception", exception)
+              .register(meterRegistry));
+    }
+  }
+
+  private String className(final ProceedingJoinPoint joinPoint) {
+    // Repository proxies implement the repository interface, tag them by it
+    for (Class<?> repositoryInterface : joinPoint.getThis().getClass().getInterfaces()) {
+      if (repositoryInterface.getPackageName().startsWith("casestudy.taskmanager")) {
+        return repositoryInterface.getSimpleName();
+      }
+    }
+    return joinPoint.getSignature().getDeclaringType().getSimpleName();
+  }
+}
@@ -0,0 +1,267 @@
+package casestudy.taskmanager.config;
+
+import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.domains.Task;
+import com.mongodb.MongoException;
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.CollationStrength;
+import lombok.extern.log4j.Log4j2;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates the indexes declared on the domain classes when the application starts, then checks
+ * with explain() that the repository queries are planned as index scans and logs the result.
+ *
+ * <p>Indexes that earlier versions of the application created and that the declared ones replace
+ * are dropped by name; indexes created by operators are left alone. A declared index that clashes
+ * with an existing index of the same name is rebuilt from its current definition.
+ *
+ * <p>Failures are only logged, so the API keeps starting and serving with the indexes it has. The
+ * exception is the unique index on the task fields: duplicate tasks are only rejected by that
+ * index, so startup fails when the index is found missing or not unique after provisioning. When
+ * the indexes cannot be read at all, for example Mongo is unreachable, this is only logged.
+ */
+@Configuration
+@Log4j2
+@ConditionalOnProperty(
+    name = "taskmanager.mongo.index-provisioning",
+    havingValue = "true",
+    matchIfMissing = true)
+public class MongoIndexConfig {
+  private static final int INDEX_OPTIONS_CONFLICT = 85;
+  private static final int INDEX_KEY_SPECS_CONFLICT = 86;
+  // Created by earlier versions, each replaced by a declared index that serves the same queries
+  private static final Map<Class<?>, Set<String>> LEGACY_INDEXES =
+      Map.of(
+          Task.class,
+          Set.of("task_fields_idx", "start_date_idx", "end_date_idx", "priority_idx"));
+
+  private final MongoTemplate mongoTemplate;
+
+  public MongoIndexConfig(final MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void provisionIndexes() {
+    log.info("Provisioning indexes for task and parent_task collections");
+
+    try {
+      int failed = ensureIndexes(Task.class) + ensureIndexes(ParentTask.class);
+      reportIndexes(Task.class);
+      reportIndexes(ParentTask.class);
+      verifyQueryPlans();
+
+      if (failed > 0) {
+        log.error("Index provisioning completed with {} failed index(es)", failed);
+      } else {
+        log.info("Index provisioning completed");
+      }
+    } catch (RuntimeException ex) {
+      log.error("Index provisioning failed: {}", ex.getMessage());
+    }
+
+    requireUniqueTaskIndex();
+  }
+
+  private int ensureIndexes(final Class<?> domainClass) {
+    int failed = 0;
+    IndexOperations indexOps = mongoTemplate.indexOps(domainClass);
+    IndexResolver resolver =
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+    List<IndexDefinition> indexDefinitions = new ArrayList<>();
+    resolver.resolveIndexFor(domainClass).forEach(indexDefinitions::add);
+
+    dropLegacyIndexes(domainClass);
+
+    for (IndexDefinition indexDefinition : indexDefinitions) {
+      try {
+        String indexName = ensureIndex(domainClass, indexOps, indexDefinition);
+        log.debug("Ensured index {} on {}", indexName, domainClass.getSimpleName());
+      } catch (RuntimeException ex) {
+        failed++;
+        log.error(
+            "Failed to build index {} on {}: {}",
+            indexDefinition.getIndexOptions().get("name"),
+            domainClass.getSimpleName(),
+            ex.getMessage());
+      }
+    }
+    return failed;
+  }
+
+  private String ensureIndex(
+      final Class<?> domainClass,
+      final IndexOperations indexOps,
+      final IndexDefinition indexDefinition) {
+    try {
+      return indexOps.ensureIndex(indexDefinition);
+    } catch (RuntimeException ex) {
+      Object indexName = indexDefinition.getIndexOptions().get("name");
+      int errorCode = mongoErrorCode(ex);
+      if (indexName == null
+          || (errorCode != INDEX_OPTIONS_CONFLICT && errorCode != INDEX_KEY_SPECS_CONFLICT)) {
+        throw ex;
+      }
+
+      // An index of the same name was built from an older definition, rebuild it
+      log.warn(
+          "Replacing index {} on {}: {}", indexName, domainClass.getSimpleName(), ex.getMessage());
+      indexOps.dropIndex(indexName.toString());
+      return indexOps.ensureIndex(indexDefinition);
+    }
+  }
+
+  private void dropLegacyIndexes(final Class<?> domainClass) {
+    Set<String> legacyNames = LEGACY_INDEXES.getOrDefault(domainClass, Set.of());
+    IndexOperations indexOps = mongoTemplate.indexOps(domainClass);
+
+    for (IndexInfo indexInfo : indexOps.getIndexInfo()) {
+      if (legacyNames.contains(indexInfo.getName())) {
+        log.warn(
+            "Dropping legacy index {} on {}", indexInfo.getName(), domainClass.getSimpleName());
+        indexOps.dropIndex(indexInfo.getName());
+      }
+    }
+  }
+
+  private void requireUniqueTaskIndex() {
+    final List<IndexInfo> taskIndexes;
+    try {
+      taskIndexes = mongoTemplate.indexOps(Task.class).getIndexInfo();
+    } catch (RuntimeException ex) {
+      log.error(
+          "Could not verify the unique index {}: {}", Task.FIELDS_UNIQUE_INDEX, ex.getMessage());
+      return;
+    }
+
+    boolean present =
+        taskIndexes.stream()
+            .anyMatch(
+                indexInfo ->
+                    Task.FIELDS_UNIQUE_INDEX.equals(indexInfo.getName()) && indexInfo.isUnique());
+    if (!present) {
+      throw new IllegalStateException(
+          "Unique index "
+              + Task.FIELDS_UNIQUE_INDEX
+              + " is missing on task, duplicate tasks would be accepted. Remove the duplicate"
+              + " active tasks reported above and restart.");
+    }
+  }
+
+  private static int mongoErrorCode(final Throwable ex) {
+    for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+      if (cause instanceof MongoException mongoException) {
+        return mongoException.getCode();
+      }
+    }
+    return -1;
+  }
+
+  private void reportIndexes(final Class<?> domainClass) {
+    String collectionName = mongoTemplate.getCollectionName(domainClass);
+    for (IndexInfo indexInfo : mongoTemplate.indexOps(domainClass).getIndexInfo()) {
+      log.info(
+          "Index {} on {} fields {} unique={}",
+          indexInfo.getName(),
+          collectionName,
+          indexInfo.getIndexFields(),
+          indexInfo.isUnique());
+    }
+  }
+
+  private void verifyQueryPlans() {
+    final Date today =
+        Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+    explain("task", "findByTaskId", new Document("task_id", 1L), null);
+    explain("task", "findByParentId", new Document("parent_id", 1L), null);
+    explain("task", "findByTask", new Document("task", ""), null);
+    explain("task", "findByStartDate", new Document("start_date", today), null);
+    explain("task", "findByEndDate", new Document("end_date", today), null);
+    explain("task", "findByPriority", new Document("priority", 1), null);
+    explain(
+        "task",
+        "findByAllTaskFields",
+        new Document("task", "")
+            .append("parent_id", 1L)
+            .append("start_date", today)
+            .append("end_date", today)
+            .append("priority", 1)
+            .append("isParentCollection", true),
+        null);
+    explain(
+        "task",
+        "searchTasks by name",
+        new Document("task", ""),
+        Collation.builder().locale("en").collationStrength(CollationStrength.SECONDARY).build());
+    explain(
+        "task",
+        "searchTasks by text",
+        new Document("$text", new Document("$search", "task")),
+        null);
+    explain(
+        "parent_task",
+        "searchTasks by text",
+        new Document("$text", new Document("$search", "task")),
+        null);
+    explain("parent_task", "findByParentId", new Document("parent_id", 1L), null);
+    explain("parent_task", "findByParentTask", new Document("parent_task", ""), null);
+  }
+
+  private void explain(
+      final String collectionName,
+      final String queryName,
+      final Document filter,
+      final Collation collation) {
+    Document plan =
+        mongoTemplate.getCollection(collectionName).find(filter).collation(collation).explain();
+
+    Set<String> stages = new LinkedHashSet<>();
+    collectStages(plan.get("queryPlanner"), stages);
+
+    if (stages.contains("IXSCAN") || stages.contains("IDHACK")) {
+      log.info("Query {} on {} uses an index, plan stages {}", queryName, collectionName, stages);
+    } else {
+      log.warn(
+          "Query {} on {} does not use an index, plan stages {}",
+          queryName,
+          collectionName,
+          stages);
+    }
+  }
+
+  private void collectStages(final Object node, final Set<String> stages) {
+    if (node instanceof Document document) {
+      // Only the winning plan is relevant, skip the rejected ones
+      document.forEach(
+          (key, value) -> {
+            if ("stage".equals(key) && value instanceof String stage) {
+              stages.add(stage);
+            } else if (!"rejectedPlans".equals(key)) {
+              collectStages(value, stages);
+            }
+          });
+    } else if (node instanceof List<?> list) {
+      list.forEach(item -> collectStages(item, stages));
+    }
+  }
+}
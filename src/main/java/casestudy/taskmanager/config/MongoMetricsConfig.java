@@ -0,0 +1,76 @@
+package casestudy.taskmanager.config;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the Mongo commands sent while handling each request and records the count per endpoint
+ * as taskmanager.mongo.round.trips.
+ *
+ * <p>Commands are counted on the request thread, commands sent from other threads, like the
+ * writes of a streamed response, are not included.
+ */
+@Configuration
+@Profile("!reactive")
+public class MongoMetricsConfig {
+  public static final String ROUND_TRIPS = "taskmanager.mongo.round.trips";
+
+  private static final ThreadLocal<int[]> REQUEST_ROUND_TRIPS = new ThreadLocal<>();
+
+  @Bean
+  public MongoClientSettingsBuilderCustomizer roundTripCountingCustomizer() {
+    CommandListener roundTripListener =
+        new CommandListener() {
+          @Override
+          public void commandStarted(final CommandStartedEvent event) {
+            int[] roundTrips = REQUEST_ROUND_TRIPS.get();
+            if (roundTrips != null) {
+              roundTrips[0]++;
+            }
+          }
+        };
+
+    return builder -> builder.addCommandListener(roundTripListener);
+  }
+
+  @Bean
+  public OncePerRequestFilter roundTripMetricsFilter(final MeterRegistry meterRegistry) {
+    return new OncePerRequestFilter() {
+      @Override
+      protected void doFilterInternal(
+          final HttpServletRequest request,
+          final HttpServletResponse response,
+          final FilterChain filterChain)
+          throws ServletException, IOException {
+        int[] roundTrips = new int[1];
+        REQUEST_ROUND_TRIPS.set(roundTrips);
+        try {
+          filterChain.doFilter(request, response);
+        } finally {
+          REQUEST_ROUND_TRIPS.remove();
+
+          Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+          DistributionSummary.builder(ROUND_TRIPS)
+              .tag("method", request.getMethod())
+              .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+              .register(meterRegistry)
+              .record(roundTrips[0]);
+        }
+      }
+    };
+  }
+}
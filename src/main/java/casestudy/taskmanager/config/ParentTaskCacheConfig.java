@@ -0,0 +1,45 @@
+package casestudy.taskmanager.config;
+
+import casestudy.taskmanager.service.ParentTaskCache;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Loads the parent task cache when the application starts and reloads it periodically, so
+ * parent tasks renamed by other nodes are picked up.
+ */
+@Configuration
+@EnableScheduling
+@Log4j2
+@ConditionalOnProperty(
+    name = "taskmanager.parent-task-cache.preload",
+    havingValue = "true",
+    matchIfMissing = true)
+public class ParentTaskCacheConfig {
+  private final ParentTaskCache parentTaskCache;
+
+  public ParentTaskCacheConfig(final ParentTaskCache parentTaskCache) {
+    this.parentTaskCache = parentTaskCache;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void preload() {
+    reload();
+  }
+
+  @Scheduled(
+      initialDelayString = "${taskmanager.parent-task-cache.refresh-interval-ms:300000}",
+      fixedDelayString = "${taskmanager.parent-task-cache.refresh-interval-ms:300000}")
+  public void reload() {
+    try {
+      parentTaskCache.load();
+    } catch (RuntimeException ex) {
+      log.error("Failed to load the parent task cache: {}", ex.getMessage());
+    }
+  }
+}
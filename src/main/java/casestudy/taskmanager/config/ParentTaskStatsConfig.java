@@ -0,0 +1,45 @@
+package casestudy.taskmanager.config;
+
+import casestudy.taskmanager.service.ParentTaskStatsStore;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Reconciles the parent task stats with the task collection when the application starts and
+ * periodically after, correcting counters that missed an update.
+ */
+@Configuration
+@EnableScheduling
+@Log4j2
+@ConditionalOnProperty(
+    name = "taskmanager.parent-task-stats.reconcile",
+    havingValue = "true",
+    matchIfMissing = true)
+public class ParentTaskStatsConfig {
+  private final ParentTaskStatsStore parentTaskStatsStore;
+
+  public ParentTaskStatsConfig(final ParentTaskStatsStore parentTaskStatsStore) {
+    this.parentTaskStatsStore = parentTaskStatsStore;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void reconcileOnStartup() {
+    reconcile();
+  }
+
+  @Scheduled(
+      initialDelayString = "${taskmanager.parent-task-stats.reconcile-interval-ms:300000}",
+      fixedDelayString = "${taskmanager.parent-task-stats.reconcile-interval-ms:300000}")
+  public void reconcile() {
+    try {
+      parentTaskStatsStore.reconcile();
+    } catch (RuntimeException ex) {
+      log.error("Failed to reconcile the parent task stats: {}", ex.getMessage());
+    }
+  }
+}
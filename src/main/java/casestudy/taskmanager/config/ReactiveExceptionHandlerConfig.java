@@ -0,0 +1,47 @@
+package casestudy.taskmanager.config;
+
+import casestudy.taskmanager.exception.DBException;
+import casestudy.taskmanager.exception.TaskValidationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebInputException;
+
+/** WebFlux counterpart of {@link ExceptionHandlerConfig} for the reactive profile. */
+@RestControllerAdvice
+@Profile("reactive")
+public class ReactiveExceptionHandlerConfig {
+  @ExceptionHandler(TaskValidationException.class)
+  public final ResponseEntity<String> handleTaskValidationException(TaskValidationException ex) {
+
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler({
+    JsonProcessingException.class,
+    RuntimeJsonMappingException.class,
+    DecodingException.class,
+    ServerWebInputException.class
+  })
+  public final ResponseEntity<String> handleJsonException(Exception ex) {
+
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+  }
+
+  @ExceptionHandler(DBException.class)
+  public final ResponseEntity<String> handleDBException(DBException ex) {
+
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+  }
+
+  @ExceptionHandler(Exception.class)
+  public final ResponseEntity<String> handleAllOtherException(Exception ex) {
+
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+  }
+}
@@ -0,0 +1,71 @@
+package casestudy.taskmanager.config;
+
+import casestudy.taskmanager.service.TaskChangeFeed;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Small pool writing the change feed events to the subscribers, so a save never waits on a
+ * client connection. Each subscriber has at most one pending write, so the queue only has to hold
+ * one task per subscriber. Heartbeats keep idle connections open through proxies and find the
+ * subscribers that went away without closing their connection.
+ *
+ * <p>The pool is owned by the {@link TaskChangeFeed} and is not a bean of its own: an Executor
+ * bean would stand in for the applicationTaskExecutor of Spring Boot, which runs the MVC async
+ * requests.
+ */
+@Configuration
+@EnableScheduling
+public class TaskChangeFeedConfig {
+  private final TaskChangeFeed taskChangeFeed;
+
+  public TaskChangeFeedConfig(final TaskChangeFeed taskChangeFeed) {
+    this.taskChangeFeed = taskChangeFeed;
+  }
+
+  // Static, the feed is created before this configuration which depends on it
+  @Bean
+  public static TaskChangeFeed taskChangeFeed(
+      final ObjectMapper objectMapper,
+      final MeterRegistry meterRegistry,
+      @Value("${taskmanager.change-feed.pool-size:2}") final int poolSize,
+      @Value("${taskmanager.change-feed.buffer-size:64}") final int bufferSize,
+      @Value("${taskmanager.change-feed.slow-consumer-policy:drop}") final String policy,
+      @Value("${taskmanager.change-feed.timeout-ms:1800000}") final long timeoutMs,
+      @Value("${taskmanager.change-feed.max-subscribers:10000}") final int maxSubscribers,
+      @Value("${taskmanager.change-feed.retry-after-seconds:30}") final long retryAfterSeconds,
+      @Value("${taskmanager.change-feed.send-timeout-ms:10000}") final long sendTimeoutMs,
+      @Value("${taskmanager.change-feed.max-stalled-writes:16}") final int maxStalledWrites) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(maxSubscribers);
+    executor.setThreadNamePrefix("task-change-feed-");
+    executor.setDaemon(true);
+    executor.initialize();
+    return new TaskChangeFeed(
+        objectMapper,
+        executor,
+        meterRegistry,
+        bufferSize,
+        policy,
+        timeoutMs,
+        maxSubscribers,
+        retryAfterSeconds,
+        sendTimeoutMs,
+        maxStalledWrites);
+  }
+
+  @Scheduled(
+      initialDelayString = "${taskmanager.change-feed.heartbeat-interval-ms:15000}",
+      fixedDelayString = "${taskmanager.change-feed.heartbeat-interval-ms:15000}")
+  public void heartbeat() {
+    taskChangeFeed.heartbeat();
+  }
+}
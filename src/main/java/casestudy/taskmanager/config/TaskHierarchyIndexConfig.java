@@ -0,0 +1,42 @@
+package casestudy.taskmanager.config;
+
+import casestudy.taskmanager.service.TaskHierarchyIndex;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Loads the task hierarchy index when the application starts and reloads it periodically. Until
+ * it is loaded, and when it is disabled, subtree and ancestor reads use $graphLookup.
+ */
+@Configuration
+@EnableScheduling
+@Log4j2
+@ConditionalOnProperty(name = "taskmanager.task-hierarchy.in-memory", havingValue = "true")
+public class TaskHierarchyIndexConfig {
+  private final TaskHierarchyIndex taskHierarchyIndex;
+
+  public TaskHierarchyIndexConfig(final TaskHierarchyIndex taskHierarchyIndex) {
+    this.taskHierarchyIndex = taskHierarchyIndex;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void preload() {
+    reload();
+  }
+
+  @Scheduled(
+      initialDelayString = "${taskmanager.task-hierarchy.refresh-interval-ms:300000}",
+      fixedDelayString = "${taskmanager.task-hierarchy.refresh-interval-ms:300000}")
+  public void reload() {
+    try {
+      taskHierarchyIndex.load();
+    } catch (RuntimeException ex) {
+      log.error("Failed to load the task hierarchy index: {}", ex.getMessage());
+    }
+  }
+}
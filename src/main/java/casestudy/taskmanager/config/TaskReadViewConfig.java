@@ -0,0 +1,205 @@
+package casestudy.taskmanager.config;
+
+import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.service.TaskCollectionVersion;
+import casestudy.taskmanager.service.TaskReadView;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the task read view when the application starts and keeps it current with the changes of
+ * the task and parent_task collections read from a Mongo change stream. The stream is opened
+ * before the load, so no write made during the load is missed.
+ *
+ * <p>Change streams need a replica set. On a standalone server the view is only kept current by
+ * the writes of this node and is reloaded periodically for the writes of the other nodes, the
+ * same as the parent task cache.
+ *
+ * <p>Every applied change and every load bumps the read view version of the {@link
+ * TaskCollectionVersion}, so the ETag of the lists served from the view follows their content.
+ */
+@Configuration
+@EnableScheduling
+@Log4j2
+@ConditionalOnProperty(name = "taskmanager.read-view.enabled", havingValue = "true")
+public class TaskReadViewConfig {
+  // Error code of a $changeStream stage run on a server that is not a replica set
+  private static final int CHANGE_STREAM_UNSUPPORTED = 40573;
+  private static final long RETRY_DELAY_MS = 5000;
+
+  private final TaskReadView taskReadView;
+  private final TaskCollectionVersion taskCollectionVersion;
+  private final MongoTemplate mongoTemplate;
+  private final boolean changeStreamsEnabled;
+
+  private volatile boolean running = true;
+  private volatile boolean changeStreamActive;
+  private Thread changeStreamThread;
+
+  public TaskReadViewConfig(
+      final TaskReadView taskReadView,
+      final TaskCollectionVersion taskCollectionVersion,
+      final MongoTemplate mongoTemplate,
+      @Value("${taskmanager.read-view.change-streams:true}") final boolean changeStreamsEnabled) {
+    this.taskReadView = taskReadView;
+    this.taskCollectionVersion = taskCollectionVersion;
+    this.mongoTemplate = mongoTemplate;
+    this.changeStreamsEnabled = changeStreamsEnabled;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!changeStreamsEnabled) {
+      reload();
+      return;
+    }
+
+    changeStreamThread = new Thread(this::watchChanges, "task-read-view-change-stream");
+    changeStreamThread.setDaemon(true);
+    changeStreamThread.start();
+  }
+
+  @Scheduled(
+      initialDelayString = "${taskmanager.read-view.refresh-interval-ms:300000}",
+      fixedDelayString = "${taskmanager.read-view.refresh-interval-ms:300000}")
+  public void refresh() {
+    // A running change stream already brings in the writes of the other nodes
+    if (!changeStreamActive) {
+      reload();
+    }
+  }
+
+  @PreDestroy
+  public void stop() {
+    running = false;
+    if (changeStreamThread != null) {
+      changeStreamThread.interrupt();
+    }
+  }
+
+  private void reload() {
+    try {
+      taskReadView.load();
+      taskCollectionVersion.bumpReadView();
+    } catch (RuntimeException ex) {
+      log.error("Failed to load the task read view: {}", ex.getMessage());
+    }
+  }
+
+  private void watchChanges() {
+    while (running) {
+      try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor =
+          mongoTemplate
+              .getDb()
+              .watch(
+                  Collections.singletonList(
+                      Aggregates.match(
+                          Filters.in(
+                              "ns.coll",
+                              mongoTemplate.getCollectionName(Task.class),
+                              mongoTemplate.getCollectionName(ParentTask.class)))))
+              .fullDocument(FullDocument.UPDATE_LOOKUP)
+              .maxAwaitTime(1, TimeUnit.SECONDS)
+              .cursor()) {
+        // Loaded after the stream is open, changes made during the load are applied again after
+        taskReadView.load();
+        taskCollectionVersion.bumpReadView();
+        changeStreamActive = true;
+        log.info("Task read view loaded, following the change stream");
+
+        while (running) {
+          final ChangeStreamDocument<Document> change = cursor.tryNext();
+          if (change != null) {
+            apply(change);
+          }
+        }
+      } catch (MongoCommandException ex) {
+        changeStreamActive = false;
+        if (ex.getErrorCode() == CHANGE_STREAM_UNSUPPORTED) {
+          log.warn("Change streams are not supported, the task read view is reloaded periodically");
+          reload();
+          return;
+        }
+        log.error("Task read view change stream failed: {}", ex.getMessage());
+        pauseBeforeRetry();
+      } catch (RuntimeException ex) {
+        changeStreamActive = false;
+        if (running) {
+          log.error("Task read view change stream failed: {}", ex.getMessage());
+          pauseBeforeRetry();
+        }
+      }
+    }
+  }
+
+  private void apply(final ChangeStreamDocument<Document> change) {
+    final String collectionName = change.getNamespace().getCollectionName();
+    final boolean isTask = mongoTemplate.getCollectionName(Task.class).equals(collectionName);
+
+    switch (change.getOperationType()) {
+      case INSERT, UPDATE, REPLACE -> {
+        // Null when the document was deleted before the update was looked up
+        final Document document = change.getFullDocument();
+        if (document == null) {
+          return;
+        }
+        if (isTask) {
+          taskReadView.putTask(mongoTemplate.getConverter().read(Task.class, document));
+        } else {
+          taskReadView.putParentTask(mongoTemplate.getConverter().read(ParentTask.class, document));
+        }
+        taskCollectionVersion.bumpReadView();
+      }
+      case DELETE -> {
+        final String documentId = documentId(change.getDocumentKey().get("_id"));
+        if (isTask) {
+          taskReadView.removeTask(documentId);
+        } else {
+          taskReadView.removeParentTask(documentId);
+        }
+        taskCollectionVersion.bumpReadView();
+      }
+      // A dropped or renamed collection ends the stream, it is reopened with a full load
+      case DROP, RENAME, DROP_DATABASE, INVALIDATE -> throw new IllegalStateException(
+          "Change stream invalidated by " + change.getOperationType().getValue());
+      default -> log.debug("Ignored change stream event {}", change.getOperationType());
+    }
+  }
+
+  // Ids are mapped from ObjectId to the String id of the domain classes
+  private static String documentId(final BsonValue id) {
+    if (id.isObjectId()) {
+      return id.asObjectId().getValue().toHexString();
+    }
+    return id.isString() ? id.asString().getValue() : id.toString();
+  }
+
+  private void pauseBeforeRetry() {
+    try {
+      Thread.sleep(RETRY_DELAY_MS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+}
@@ -0,0 +1,330 @@
+package casestudy.taskmanager.controllers;
+
+import casestudy.taskmanager.models.AppKeyValue;
+import casestudy.taskmanager.models.BulkImportResult;
+import casestudy.taskmanager.models.CacheStats;
+import casestudy.taskmanager.models.ParentTaskStatsModel;
+import casestudy.taskmanager.models.TaskModel;
+import casestudy.taskmanager.models.TaskModelPage;
+import casestudy.taskmanager.models.TaskTreeNode;
+import casestudy.taskmanager.service.I18nMessagesCache;
+import casestudy.taskmanager.service.I18nMessagesCache.I18nMessages;
+import casestudy.taskmanager.service.ReactiveTaskManagerService;
+import casestudy.taskmanager.service.TaskManagerService;
+import casestudy.taskmanager.util.DateUtil;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The /api/taskManager contract on WebFlux, active with the reactive profile. List endpoints
+ * return a Flux so that tasks are written to the client as they are joined.
+ */
+@RestController
+@RequestMapping("/api/taskManager")
+@Profile("reactive")
+@Log4j2
+public class ReactiveTaskManagerController {
+  private final ReactiveTaskManagerService reactiveTaskManagerService;
+  private final TaskManagerService taskManagerService;
+  private final I18nMessagesCache i18nMessagesCache;
+  private final DateUtil dateUtil;
+
+  public ReactiveTaskManagerController(
+      final ReactiveTaskManagerService reactiveTaskManagerService,
+      final TaskManagerService taskManagerService,
+      final I18nMessagesCache i18nMessagesCache,
+      final DateUtil dateUtil) {
+    this.reactiveTaskManagerService = reactiveTaskManagerService;
+    this.taskManagerService = taskManagerService;
+    this.i18nMessagesCache = i18nMessagesCache;
+    this.dateUtil = dateUtil;
+  }
+
+  @GetMapping("/allTasks")
+  public Flux<TaskModel> getAllTasks(
+      @RequestParam(required = false) final String fields, final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getAllTasks method");
+
+    // Answers 304 when the client already holds the list of the current version, the version is
+    // read from the database off the event loop
+    return taskCollectionETag(exchange)
+        .flatMapMany(
+            eTag ->
+                exchange.checkNotModified(eTag)
+                    ? Flux.empty()
+                    : reactiveTaskManagerService.getAllTasks(fields, exchange.getLocaleContext()));
+  }
+
+  @GetMapping("/allTasks/page")
+  public Mono<TaskModelPage> getAllTasksPage(
+      @RequestParam(required = false) final String cursor,
+      @RequestParam(defaultValue = "50") final int size,
+      final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getAllTasksPage method");
+
+    return reactiveTaskManagerService.withLocale(
+        exchange.getLocaleContext(), () -> taskManagerService.getAllTasksPage(cursor, size));
+  }
+
+  @GetMapping(value = "/allTasks/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<TaskModel> exportAllTasks() {
+    log.debug("Initiating ReactiveTaskManagerController exportAllTasks method");
+
+    return reactiveTaskManagerService.getAllTasks();
+  }
+
+  @GetMapping("/allParentsAndActiveTasks")
+  public Flux<TaskModel> getAllParentsAndActiveTasks(
+      @RequestParam(required = false) final String fields, final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getAllParentsAndActiveTasks method");
+
+    return taskCollectionETag(exchange)
+        .flatMapMany(
+            eTag ->
+                exchange.checkNotModified(eTag)
+                    ? Flux.empty()
+                    : reactiveTaskManagerService.getAllParentsAndActiveTasks(
+                        fields, exchange.getLocaleContext()));
+  }
+
+  @GetMapping("/allParentsAndActiveTasks/page")
+  public Mono<TaskModelPage> getAllParentsAndActiveTasksPage(
+      @RequestParam(required = false) final String cursor,
+      @RequestParam(defaultValue = "50") final int size,
+      final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getAllParentsAndActiveTasksPage method");
+
+    return reactiveTaskManagerService.withLocale(
+        exchange.getLocaleContext(),
+        () -> taskManagerService.getAllParentsAndActiveTasksPage(cursor, size));
+  }
+
+  @GetMapping("/taskByName/{taskName}")
+  public Flux<TaskModel> getTaskByName(
+      @PathVariable final String taskName,
+      @RequestParam(required = false) final String fields,
+      final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getTaskByName method");
+
+    return reactiveTaskManagerService.getTaskByName(
+        taskName, fields, exchange.getLocaleContext());
+  }
+
+  @GetMapping("/taskById/{taskId}")
+  public Mono<TaskModel> getTaskById(
+      @PathVariable final String taskId, final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getTaskById method");
+
+    return reactiveTaskManagerService.withLocale(
+        exchange.getLocaleContext(), () -> taskManagerService.getTaskById(taskId));
+  }
+
+  @GetMapping("/taskSubtree/{taskId}")
+  public Mono<TaskTreeNode> getTaskSubtree(
+      @PathVariable final String taskId,
+      @RequestParam(defaultValue = "10") final int maxDepth,
+      final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getTaskSubtree method");
+
+    return reactiveTaskManagerService.withLocale(
+        exchange.getLocaleContext(), () -> taskManagerService.getTaskSubtree(taskId, maxDepth));
+  }
+
+  @GetMapping("/taskAncestors/{taskId}")
+  public Mono<List<TaskModel>> getTaskAncestors(
+      @PathVariable final String taskId,
+      @RequestParam(defaultValue = "10") final int maxDepth,
+      final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getTaskAncestors method");
+
+    return reactiveTaskManagerService.withLocale(
+        exchange.getLocaleContext(), () -> taskManagerService.getTaskAncestors(taskId, maxDepth));
+  }
+
+  @GetMapping("/taskByStartDate/{startDate}")
+  public Flux<TaskModel> getTaskByStartDate(
+      @PathVariable("startDate") final String startDateStr,
+      @RequestParam(required = false) final String fields,
+      final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getTaskByStartDate method");
+
+    return Flux.defer(
+        () ->
+            reactiveTaskManagerService.getTaskByStartDate(
+                dateUtil.toLocalDate(startDateStr), fields, exchange.getLocaleContext()));
+  }
+
+  @GetMapping("/taskByEndDate/{endDate}")
+  public Flux<TaskModel> getTaskByEndDate(
+      @PathVariable("endDate") final String endDateStr,
+      @RequestParam(required = false) final String fields,
+      final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getTaskByEndDate method");
+
+    return Flux.defer(
+        () ->
+            reactiveTaskManagerService.getTaskByEndDate(
+                dateUtil.toLocalDate(endDateStr), fields, exchange.getLocaleContext()));
+  }
+
+  @GetMapping("/taskByPriority/{priority}")
+  public Flux<TaskModel> getTaskByPriority(
+      @PathVariable("priority") final String priority,
+      @RequestParam(required = false) final String fields,
+      final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getTaskByPriority method");
+
+    return reactiveTaskManagerService.getTaskByPriority(
+        priority, fields, exchange.getLocaleContext());
+  }
+
+  @GetMapping("/taskByPriorityRange")
+  public Mono<TaskModelPage> getTaskByPriorityRange(
+      @RequestParam final int from,
+      @RequestParam final int to,
+      @RequestParam(defaultValue = "asc") final String sort,
+      @RequestParam(required = false) final String cursor,
+      @RequestParam(defaultValue = "50") final int size,
+      final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getTaskByPriorityRange method");
+
+    return reactiveTaskManagerService.withLocale(
+        exchange.getLocaleContext(),
+        () -> taskManagerService.getTaskByPriorityRange(from, to, sort, cursor, size));
+  }
+
+  @GetMapping("/taskByStartDateRange")
+  public Mono<TaskModelPage> getTaskByStartDateRange(
+      @RequestParam("from") final String fromStr,
+      @RequestParam("to") final String toStr,
+      @RequestParam(defaultValue = "asc") final String sort,
+      @RequestParam(required = false) final String cursor,
+      @RequestParam(defaultValue = "50") final int size,
+      final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getTaskByStartDateRange method");
+
+    return reactiveTaskManagerService.withLocale(
+        exchange.getLocaleContext(),
+        () ->
+            taskManagerService.getTaskByStartDateRange(
+                dateUtil.toLocalDate(fromStr), dateUtil.toLocalDate(toStr), sort, cursor, size));
+  }
+
+  @GetMapping("/taskByEndDateRange")
+  public Mono<TaskModelPage> getTaskByEndDateRange(
+      @RequestParam("from") final String fromStr,
+      @RequestParam("to") final String toStr,
+      @RequestParam(defaultValue = "asc") final String sort,
+      @RequestParam(required = false) final String cursor,
+      @RequestParam(defaultValue = "50") final int size,
+      final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getTaskByEndDateRange method");
+
+    return reactiveTaskManagerService.withLocale(
+        exchange.getLocaleContext(),
+        () ->
+            taskManagerService.getTaskByEndDateRange(
+                dateUtil.toLocalDate(fromStr), dateUtil.toLocalDate(toStr), sort, cursor, size));
+  }
+
+  @PostMapping("/addTask")
+  public Mono<AppKeyValue> addTask(
+      @RequestBody final TaskModel taskMode, final ServerWebExchange exchange) {
+
+    return reactiveTaskManagerService
+        .withLocale(exchange.getLocaleContext(), () -> taskManagerService.addTask(taskMode))
+        .map(response -> new AppKeyValue("message", response));
+  }
+
+  /**
+   * Add many tasks in one request, sent either as a JSON array or as newline delimited JSON. The
+   * decoded body is consumed by the bulk import as it arrives.
+   */
+  @PostMapping(
+      value = "/addTasks",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public Mono<BulkImportResult> addTasks(
+      @RequestBody final Flux<TaskModel> taskModels, final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController addTasks method");
+
+    return reactiveTaskManagerService.withLocale(
+        exchange.getLocaleContext(),
+        () -> taskManagerService.addTasks(taskModels.toIterable().iterator()));
+  }
+
+  @PutMapping("/updateTask")
+  public Mono<AppKeyValue> updateTask(
+      @RequestBody final TaskModel taskMode, final ServerWebExchange exchange) {
+
+    return reactiveTaskManagerService
+        .withLocale(exchange.getLocaleContext(), () -> taskManagerService.updateTask(taskMode))
+        .map(response -> new AppKeyValue("message", response));
+  }
+
+  @PostMapping("/search")
+  public Flux<TaskModel> searchTasks(
+      @RequestBody final TaskModel taskModel, final ServerWebExchange exchange) {
+
+    return reactiveTaskManagerService.searchTasks(taskModel, exchange.getLocaleContext());
+  }
+
+  @PutMapping("/endTask/{taskId}")
+  public Mono<AppKeyValue> endTask(
+      @PathVariable("taskId") final String taskId, final ServerWebExchange exchange) {
+
+    return reactiveTaskManagerService
+        .withLocale(exchange.getLocaleContext(), () -> taskManagerService.endTask(taskId))
+        .map(response -> new AppKeyValue("message", response));
+  }
+
+  @GetMapping("/parentTaskCache/stats")
+  public CacheStats getParentTaskCacheStats() {
+    log.debug("Initiating ReactiveTaskManagerController getParentTaskCacheStats method");
+
+    return taskManagerService.getParentTaskCacheStats();
+  }
+
+  @GetMapping("/parentTaskStats")
+  public Mono<List<ParentTaskStatsModel>> getParentTaskStats(final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getParentTaskStats method");
+
+    return reactiveTaskManagerService.withLocale(
+        exchange.getLocaleContext(), taskManagerService::getParentTaskStats);
+  }
+
+  private Mono<String> taskCollectionETag(final ServerWebExchange exchange) {
+    return reactiveTaskManagerService.withLocale(
+        exchange.getLocaleContext(), taskManagerService::getTaskCollectionETag);
+  }
+
+  // Served from memory, so it runs on the event loop
+  @GetMapping(value = "/i18nMessages", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<byte[]> getI18nMessages(final ServerWebExchange exchange) {
+    log.debug("Initiating ReactiveTaskManagerController getI18nMessages method");
+
+    final LocaleContext localeContext = exchange.getLocaleContext();
+    final I18nMessages messages =
+        i18nMessagesCache.get(
+            localeContext.getLocale() != null
+                ? localeContext.getLocale()
+                : LocaleContextHolder.getLocale());
+
+    return ResponseEntity.ok()
+        .eTag(messages.getETag())
+        .cacheControl(CacheControl.maxAge(i18nMessagesCache.getMaxAge()))
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE)
+        .body(messages.getJson());
+  }
+}
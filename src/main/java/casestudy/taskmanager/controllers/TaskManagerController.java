@@ -1,49 +1,177 @@
 package casestudy.taskmanager.controllers;
 
 import casestudy.taskmanager.models.AppKeyValue;
+import casestudy.taskmanager.models.BulkImportResult;
+import casestudy.taskmanager.models.CacheStats;
+import casestudy.taskmanager.models.ParentTaskStatsModel;
 import casestudy.taskmanager.models.TaskModel;
+import casestudy.taskmanager.models.TaskModelPage;
+import casestudy.taskmanager.models.TaskTreeNode;
+import casestudy.taskmanager.service.I18nMessagesCache;
+import casestudy.taskmanager.service.I18nMessagesCache.I18nMessages;
 import casestudy.taskmanager.service.TaskManagerService;
 import casestudy.taskmanager.util.DateUtil;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.springframework.http.HttpStatus.OK;
 
 @RestController
 @RequestMapping("/api/taskManager")
+@Profile("!reactive")
 @Log4j2
 public class TaskManagerController {
+  private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+  private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
   private final TaskManagerService taskManagerService;
+  private final I18nMessagesCache i18nMessagesCache;
   private final DateUtil dateUtil;
+  private final ObjectMapper objectMapper;
 
   public TaskManagerController(
-      final TaskManagerService taskManagerService, final DateUtil dateUtil) {
+      final TaskManagerService taskManagerService,
+      final I18nMessagesCache i18nMessagesCache,
+      final DateUtil dateUtil,
+      final ObjectMapper objectMapper) {
     this.taskManagerService = taskManagerService;
+    this.i18nMessagesCache = i18nMessagesCache;
     this.dateUtil = dateUtil;
+    this.objectMapper = objectMapper;
   }
 
   @GetMapping("/allTasks")
-  public List<TaskModel> getAllTasks() {
+  public List<TaskModel> getAllTasks(
+      @RequestParam(required = false) final String fields, final WebRequest webRequest) {
     log.debug("Initiating TaskManagerController getAllTasks method");
 
-    return taskManagerService.getAllTasks();
+    // Answers 304 when the client already holds the list of the current version
+    if (webRequest.checkNotModified(taskManagerService.getTaskCollectionETag())) {
+      return null;
+    }
+    return taskManagerService.getAllTasks(fields);
+  }
+
+  @GetMapping("/allTasks/page")
+  public TaskModelPage getAllTasksPage(
+      @RequestParam(required = false) final String cursor,
+      @RequestParam(defaultValue = "50") final int size) {
+    log.debug("Initiating TaskManagerController getAllTasksPage method");
+
+    return taskManagerService.getAllTasksPage(cursor, size);
+  }
+
+  /**
+   * Export all the tasks as newline delimited JSON, written while reading from the database so the
+   * memory used does not grow with the number of tasks. The response is gzip encoded when the
+   * client accepts it.
+   */
+  @GetMapping(value = "/allTasks/export", produces = NDJSON_MEDIA_TYPE)
+  public ResponseEntity<StreamingResponseBody> exportAllTasks(
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+          final String acceptEncoding) {
+    log.debug("Initiating TaskManagerController exportAllTasks method");
+
+    final boolean gzip = acceptsGzip(acceptEncoding);
+    final ObjectWriter ndjsonWriter =
+        objectMapper.writerFor(TaskModel.class).withRootValueSeparator("\n");
+
+    StreamingResponseBody body =
+        outputStream -> {
+          try (Stream<TaskModel> tasks = taskManagerService.streamAllTasks();
+              OutputStream out =
+                  gzip ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE) : outputStream;
+              SequenceWriter taskWriter = ndjsonWriter.writeValues(out)) {
+            for (TaskModel taskModel : (Iterable<TaskModel>) tasks::iterator) {
+              taskWriter.write(taskModel);
+            }
+          }
+        };
+
+    ResponseEntity.BodyBuilder response =
+        ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE));
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).body(body);
+  }
+
+  /**
+   * Whether the Accept-Encoding header allows gzip, named or through "*", with a quality value
+   * above 0. A coding with q=0 is refused by the client.
+   */
+  static boolean acceptsGzip(final String acceptEncoding) {
+    Double gzipQuality = null;
+    Double anyQuality = null;
+    for (String coding : StringUtils.split(StringUtils.defaultString(acceptEncoding), ',')) {
+      final String name = StringUtils.substringBefore(coding, ";").trim();
+      double quality = 1;
+      for (String param : StringUtils.split(StringUtils.substringAfter(coding, ";"), ';')) {
+        if ("q".equalsIgnoreCase(StringUtils.substringBefore(param, "=").trim())) {
+          quality = NumberUtils.toDouble(StringUtils.substringAfter(param, "=").trim(), 0);
+        }
+      }
+      if ("gzip".equalsIgnoreCase(name) || "x-gzip".equalsIgnoreCase(name)) {
+        gzipQuality = quality;
+      } else if ("*".equals(name)) {
+        anyQuality = quality;
+      }
+    }
+
+    if (gzipQuality != null) {
+      return gzipQuality > 0;
+    }
+    return anyQuality != null && anyQuality > 0;
   }
 
   @GetMapping("/allParentsAndActiveTasks")
-  public List<TaskModel> getAllParentsAndActiveTasks() {
+  public List<TaskModel> getAllParentsAndActiveTasks(
+      @RequestParam(required = false) final String fields, final WebRequest webRequest) {
     log.debug("Initiating TaskManagerController getAllParentsAndActiveTasks method");
 
-    return taskManagerService.getAllParentsAndActiveTasks();
+    if (webRequest.checkNotModified(taskManagerService.getTaskCollectionETag())) {
+      return null;
+    }
+    return taskManagerService.getAllParentsAndActiveTasks(fields);
+  }
+
+  @GetMapping("/allParentsAndActiveTasks/page")
+  public TaskModelPage getAllParentsAndActiveTasksPage(
+      @RequestParam(required = false) final String cursor,
+      @RequestParam(defaultValue = "50") final int size) {
+    log.debug("Initiating TaskManagerController getAllParentsAndActiveTasksPage method");
+
+    return taskManagerService.getAllParentsAndActiveTasksPage(cursor, size);
   }
 
   @GetMapping("/taskByName/{taskName}")
-  public List<TaskModel> getTaskByName(@PathVariable final String taskName) {
+  public List<TaskModel> getTaskByName(
+      @PathVariable final String taskName, @RequestParam(required = false) final String fields) {
     log.debug("Initiating TaskManagerController getTaskByName method");
 
-    return taskManagerService.getTaskByName(taskName);
+    return taskManagerService.getTaskByName(taskName, fields);
   }
 
   @GetMapping("/taskById/{taskId}")
@@ -53,25 +181,85 @@ public class TaskManagerController {
     return taskManagerService.getTaskById(taskId);
   }
 
+  @GetMapping("/taskSubtree/{taskId}")
+  public TaskTreeNode getTaskSubtree(
+      @PathVariable final String taskId, @RequestParam(defaultValue = "10") final int maxDepth) {
+    log.debug("Initiating TaskManagerController getTaskSubtree method");
+
+    return taskManagerService.getTaskSubtree(taskId, maxDepth);
+  }
+
+  @GetMapping("/taskAncestors/{taskId}")
+  public List<TaskModel> getTaskAncestors(
+      @PathVariable final String taskId, @RequestParam(defaultValue = "10") final int maxDepth) {
+    log.debug("Initiating TaskManagerController getTaskAncestors method");
+
+    return taskManagerService.getTaskAncestors(taskId, maxDepth);
+  }
+
   @GetMapping("/taskByStartDate/{startDate}")
-  public List<TaskModel> getTaskByStartDate(@PathVariable("startDate") final String startDateStr) {
+  public List<TaskModel> getTaskByStartDate(
+      @PathVariable("startDate") final String startDateStr,
+      @RequestParam(required = false) final String fields) {
     log.debug("Initiating TaskManagerController getTaskByStartDate method");
 
-    return taskManagerService.getTaskByStartDate(dateUtil.toLocalDate(startDateStr));
+    return taskManagerService.getTaskByStartDate(dateUtil.toLocalDate(startDateStr), fields);
   }
 
   @GetMapping("/taskByEndDate/{endDate}")
-  public List<TaskModel> getTaskByEndDate(@PathVariable("endDate") final String endDateStr) {
+  public List<TaskModel> getTaskByEndDate(
+      @PathVariable("endDate") final String endDateStr,
+      @RequestParam(required = false) final String fields) {
     log.debug("Initiating TaskManagerController getTaskByEndDate method");
 
-    return taskManagerService.getTaskByEndDate(dateUtil.toLocalDate(endDateStr));
+    return taskManagerService.getTaskByEndDate(dateUtil.toLocalDate(endDateStr), fields);
   }
 
   @GetMapping("/taskByPriority/{priority}")
-  public List<TaskModel> getTaskByPriority(@PathVariable("priority") final String priority) {
+  public List<TaskModel> getTaskByPriority(
+      @PathVariable("priority") final String priority,
+      @RequestParam(required = false) final String fields) {
     log.debug("Initiating TaskManagerController getTaskByEndDate method");
 
-    return taskManagerService.getTaskByPriority(priority);
+    return taskManagerService.getTaskByPriority(priority, fields);
+  }
+
+  @GetMapping("/taskByPriorityRange")
+  public TaskModelPage getTaskByPriorityRange(
+      @RequestParam final int from,
+      @RequestParam final int to,
+      @RequestParam(defaultValue = "asc") final String sort,
+      @RequestParam(required = false) final String cursor,
+      @RequestParam(defaultValue = "50") final int size) {
+    log.debug("Initiating TaskManagerController getTaskByPriorityRange method");
+
+    return taskManagerService.getTaskByPriorityRange(from, to, sort, cursor, size);
+  }
+
+  @GetMapping("/taskByStartDateRange")
+  public TaskModelPage getTaskByStartDateRange(
+      @RequestParam("from") final String fromStr,
+      @RequestParam("to") final String toStr,
+      @RequestParam(defaultValue = "asc") final String sort,
+      @RequestParam(required = false) final String cursor,
+      @RequestParam(defaultValue = "50") final int size) {
+    log.debug("Initiating TaskManagerController getTaskByStartDateRange method");
+
+    return taskManagerService.getTaskByStartDateRange(
+        dateUtil.toLocalDate(fromStr), dateUtil.toLocalDate(toStr), sort, cursor, size);
+  }
+
+  @GetMapping("/taskByEndDateRange")
+  public TaskModelPage getTaskByEndDateRange(
+      @RequestParam("from") final String fromStr,
+      @RequestParam("to") final String toStr,
+      @RequestParam(defaultValue = "asc") final String sort,
+      @RequestParam(required = false) final String cursor,
+      @RequestParam(defaultValue = "50") final int size) {
+    log.debug("Initiating TaskManagerController getTaskByEndDateRange method");
+
+    return taskManagerService.getTaskByEndDateRange(
+        dateUtil.toLocalDate(fromStr), dateUtil.toLocalDate(toStr), sort, cursor, size);
   }
 
   @PostMapping("/addTask")
@@ -82,6 +270,22 @@ public class TaskManagerController {
     return new ResponseEntity<>(respBody, OK);
   }
 
+  /**
+   * Add many tasks in one request, sent either as a JSON array or as newline delimited JSON. The
+   * body is read as a stream, so large imports are not held in memory as a whole.
+   */
+  @PostMapping(
+      value = "/addTasks",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON_MEDIA_TYPE})
+  public BulkImportResult addTasks(final InputStream requestBody) throws IOException {
+    log.debug("Initiating TaskManagerController addTasks method");
+
+    try (MappingIterator<TaskModel> taskModels =
+        objectMapper.readerFor(TaskModel.class).readValues(requestBody)) {
+      return taskManagerService.addTasks(taskModels);
+    }
+  }
+
   @PutMapping("/updateTask")
   public ResponseEntity<AppKeyValue> updateTask(@RequestBody final TaskModel taskMode) {
     final String response = taskManagerService.updateTask(taskMode);
@@ -104,10 +308,46 @@ public class TaskManagerController {
     return new ResponseEntity<>(respBody, OK);
   }
 
-  @GetMapping("/i18nMessages")
-  public List<AppKeyValue> getI18nMessages() {
+  @GetMapping("/parentTaskCache/stats")
+  public CacheStats getParentTaskCacheStats() {
+    log.debug("Initiating TaskManagerController getParentTaskCacheStats method");
+
+    return taskManagerService.getParentTaskCacheStats();
+  }
+
+  @GetMapping("/parentTaskStats")
+  public List<ParentTaskStatsModel> getParentTaskStats() {
+    log.debug("Initiating TaskManagerController getParentTaskStats method");
+
+    return taskManagerService.getParentTaskStats();
+  }
+
+  /**
+   * Server-Sent Events of the task and parent task changes, sent in place of polling the task
+   * lists. Idle connections get a heartbeat comment, and an EventSource reconnects by itself when
+   * the stream times out or is closed for being too slow.
+   */
+  @GetMapping(value = "/taskChanges", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter getTaskChanges() {
+    log.debug("Initiating TaskManagerController getTaskChanges method");
+
+    return taskManagerService.subscribeToTaskChanges();
+  }
+
+  /**
+   * The i18n messages of the request locale, serialized once per locale. A client sending back the
+   * ETag gets a 304 without a body.
+   */
+  @GetMapping(value = "/i18nMessages", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<byte[]> getI18nMessages() {
     log.debug("Initiating TaskManagerController getI18nMessages method");
 
-    return taskManagerService.getI18nMessages();
+    final I18nMessages messages = i18nMessagesCache.get(LocaleContextHolder.getLocale());
+
+    return ResponseEntity.ok()
+        .eTag(messages.getETag())
+        .cacheControl(CacheControl.maxAge(i18nMessagesCache.getMaxAge()))
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE)
+        .body(messages.getJson());
   }
 }
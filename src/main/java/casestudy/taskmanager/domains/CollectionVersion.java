@@ -0,0 +1,21 @@
+package casestudy.taskmanager.domains;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+@Document(collection = "collection_version")
+@Getter
+@Setter
+public class CollectionVersion {
+  @Id private String id;
+
+  // Set when the document is created, so the versions of a recreated collection never match
+  @Field("epoch")
+  private String epoch;
+
+  @Field("version")
+  private Long version;
+}
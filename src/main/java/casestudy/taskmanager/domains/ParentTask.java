@@ -4,6 +4,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -15,9 +17,12 @@ public class ParentTask {
 
   @Id private String id;
 
+  @Indexed(name = "parent_id_idx", unique = true)
   @Field("parent_id")
   private Long parentId;
 
+  @Indexed(name = "parent_task_idx")
+  @TextIndexed
   @Field("parent_task")
   private String parentTask;
 
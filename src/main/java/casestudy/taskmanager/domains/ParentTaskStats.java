@@ -0,0 +1,27 @@
+package casestudy.taskmanager.domains;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/** Counters of the tasks under one parent task, keyed by the parent_id of the parent task. */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Document(collection = "parent_task_stats")
+public class ParentTaskStats {
+  @Id private Long parentId;
+
+  @Field("active_count")
+  private long activeCount;
+
+  @Field("ended_count")
+  private long endedCount;
+
+  // Sum of the priorities of the active tasks, to derive their average priority
+  @Field("active_priority_sum")
+  private long activePrioritySum;
+}
@@ -4,6 +4,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -12,17 +16,40 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @Data
 @Document(collection = "task")
+@CompoundIndexes({
+  // Rejects duplicate active tasks. The partial filter leaves out the tasks with a priority below
+  // 0, so ending a task (priority -1) never collides with an ended twin. Those tasks are not
+  // deduplicated at all, including a task posted as already ended.
+  @CompoundIndex(
+      name = Task.FIELDS_UNIQUE_INDEX,
+      def =
+          "{'task': 1, 'parent_id': 1, 'start_date': 1, 'end_date': 1, 'priority': 1,"
+              + " 'isParentCollection': 1}",
+      unique = true,
+      partialFilter = "{'priority': {'$gte': 0}}"),
+  // Serve the exact match lookups and the range pages, which are ordered by the field then task_id
+  @CompoundIndex(name = "start_date_task_id_idx", def = "{'start_date': 1, 'task_id': 1}"),
+  @CompoundIndex(name = "end_date_task_id_idx", def = "{'end_date': 1, 'task_id': 1}"),
+  @CompoundIndex(name = "priority_task_id_idx", def = "{'priority': 1, 'task_id': 1}")
+})
 public class Task {
   @Transient public static final String SEQUENCE_NAME = "task_sequence";
+  @Transient public static final String FIELDS_UNIQUE_INDEX = "task_fields_unique_idx";
 
   @Id private String id;
 
+  @Indexed(name = "task_id_idx", unique = true)
   @Field("task_id")
   private Long taskId;
 
+  @Indexed(name = "parent_id_idx")
   @Field("parent_id")
   private Long parentId;
 
+  // Case insensitive index used by the task name search
+  @Indexed(name = "task_ci_idx", collation = "{ 'locale': 'en', 'strength': 2 }")
+  // Text index used by the word search, a collection can only hold one text index
+  @TextIndexed
   @Field("task")
   private String task;
 
@@ -0,0 +1,14 @@
+package casestudy.taskmanager.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+  private final long retryAfterSeconds;
+
+  public ServiceUnavailableException(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
@@ -0,0 +1,24 @@
+package casestudy.taskmanager.models;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class BulkImportResult {
+  private int added;
+  private int rejected;
+  private List<BulkImportRowResult> rows = new ArrayList<>();
+
+  public void addRow(final BulkImportRowResult rowResult) {
+    if (BulkImportRowResult.ADDED.equals(rowResult.getStatus())) {
+      added++;
+    } else {
+      rejected++;
+    }
+    rows.add(rowResult);
+  }
+}
@@ -0,0 +1,23 @@
+package casestudy.taskmanager.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+@AllArgsConstructor
+public class BulkImportRowResult {
+  public static final String ADDED = "ADDED";
+  public static final String DUPLICATE = "DUPLICATE";
+  public static final String INVALID = "INVALID";
+  public static final String FAILED = "FAILED";
+
+  // Zero based position of the task in the request
+  private int row;
+  private String status;
+  private Long taskId;
+  private String message;
+}
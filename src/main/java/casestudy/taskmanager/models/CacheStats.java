@@ -0,0 +1,15 @@
+package casestudy.taskmanager.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class CacheStats {
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long size;
+}
@@ -0,0 +1,20 @@
+package casestudy.taskmanager.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+@AllArgsConstructor
+public class ParentTaskStatsModel {
+  private Long parentId;
+  private String parentTask;
+  private long activeTasks;
+  private long endedTasks;
+
+  // Average priority of the active tasks, null when the parent task has no active task
+  private Double averagePriority;
+}
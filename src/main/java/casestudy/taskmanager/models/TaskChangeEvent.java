@@ -0,0 +1,22 @@
+package casestudy.taskmanager.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+@AllArgsConstructor
+public class TaskChangeEvent {
+  public static final String TASK_ADDED = "taskAdded";
+  public static final String TASK_UPDATED = "taskUpdated";
+  public static final String TASK_ENDED = "taskEnded";
+  public static final String PARENT_TASK_ADDED = "parentTaskAdded";
+  public static final String PARENT_TASK_UPDATED = "parentTaskUpdated";
+
+  private String type;
+  // The task or parent task as saved, the parent name of a task is not joined
+  private TaskModel task;
+}
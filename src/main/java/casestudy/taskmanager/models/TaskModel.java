@@ -27,4 +27,10 @@ public class TaskModel {
   private Integer priorityTo;
 
   private Boolean isParentCollection;
+
+  // Words searched in the task and parent task names with the text indexes
+  private String searchText;
+
+  // Relevance of the task to the searchText, only set by the text search
+  private Double textScore;
 }
@@ -0,0 +1,19 @@
+package casestudy.taskmanager.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+@AllArgsConstructor
+public class TaskModelPage {
+  private List<TaskModel> items;
+
+  // Opaque token to pass as cursor for the next page, null on the last page
+  private String nextCursor;
+}
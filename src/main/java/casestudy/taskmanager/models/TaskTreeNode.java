@@ -0,0 +1,21 @@
+package casestudy.taskmanager.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Getter
+@Setter
+@AllArgsConstructor
+public class TaskTreeNode {
+  private TaskModel task;
+
+  // Number of levels below the root of the requested subtree, 0 for the root
+  private int depth;
+
+  private List<TaskTreeNode> subTasks;
+}
@@ -1,6 +1,7 @@
 package casestudy.taskmanager.repositories;
 
 import casestudy.taskmanager.domains.ParentTask;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
@@ -11,4 +12,7 @@ public interface ParentTaskRepository extends MongoRepository<ParentTask, Long>
   List<ParentTask> findByParentTask(final String parentTask);
 
   List<ParentTask> findByParentId(final Long parentId);
+
+  List<ParentTask> findByParentIdGreaterThanOrderByParentIdAsc(
+      final Long parentId, final Pageable pageable);
 }
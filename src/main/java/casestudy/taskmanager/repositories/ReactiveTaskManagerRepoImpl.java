@@ -0,0 +1,50 @@
+package casestudy.taskmanager.repositories;
+
+import casestudy.taskmanager.models.TaskModel;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Reactive counterpart of the TaskModel reads of {@link TaskManagerRepoImpl}, running the same
+ * parent lookup aggregations on the ReactiveMongoTemplate so rows are emitted as they are joined.
+ */
+@Log4j2
+@Repository
+@Profile("reactive")
+public class ReactiveTaskManagerRepoImpl {
+  private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+  public ReactiveTaskManagerRepoImpl(final ReactiveMongoTemplate reactiveMongoTemplate) {
+    this.reactiveMongoTemplate = reactiveMongoTemplate;
+  }
+
+  /**
+   * @param fields the TaskModel fields to read, the others are left null and the parent lookups
+   *     are skipped when parentTask is not one of them
+   */
+  public Flux<TaskModel> findTaskModels(final Criteria criteria, final Set<String> fields) {
+    log.debug(
+        "Retrieving TaskModel with parent lookup - ReactiveTaskManagerRepoImpl findTaskModels");
+
+    return reactiveMongoTemplate.aggregate(
+        TaskManagerRepoImpl.taskModelAggregation(
+            Collections.singletonList(Aggregation.match(criteria)), null, fields),
+        TaskModel.class);
+  }
+
+  public Flux<TaskModel> searchTaskModels(final TaskModel taskModel) {
+    log.debug(
+        "Searching TaskModel with parent lookup - ReactiveTaskManagerRepoImpl searchTaskModels");
+
+    return reactiveMongoTemplate.aggregate(
+        TaskManagerRepoImpl.searchAggregation(taskModel), TaskModel.class);
+  }
+}
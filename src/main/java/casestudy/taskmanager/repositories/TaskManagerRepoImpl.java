@@ -1,18 +1,47 @@
 package casestudy.taskmanager.repositories;
 
 import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskModel;
+import casestudy.taskmanager.util.TaskModelFields;
 import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.GraphLookupOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Log4j2
 @Repository
 public class TaskManagerRepoImpl implements TaskManagerRepository {
+  private static final String PARENT_TASK_LOOKUP = "parentTaskLookup";
+  private static final String TASK_AS_PARENT_LOOKUP = "taskAsParentLookup";
+  private static final String PARENT_TASK_KEY = "parentTaskKey";
+  private static final String TASK_AS_PARENT_KEY = "taskAsParentKey";
+  private static final int STREAM_BATCH_SIZE = 1000;
+  private static final String GRAPH_LOOKUP = "relatives";
+  private static final String TEXT_SCORE = "textScore";
+
   private final MongoTemplate mongoTemplate;
 
   public TaskManagerRepoImpl(final MongoTemplate mongoTemplate) {
@@ -42,4 +71,429 @@ public class TaskManagerRepoImpl implements TaskManagerRepository {
 
     return mongoTemplate.find(query, Task.class);
   }
+
+  @Override
+  public List<TaskModel> findTaskModels(final Criteria criteria, final Set<String> fields) {
+    log.debug("Retrieving TaskModel with parent lookup - TaskManagerRepoImpl findTaskModels");
+
+    return mongoTemplate
+        .aggregate(
+            taskModelAggregation(
+                Collections.singletonList(Aggregation.match(criteria)), null, fields),
+            TaskModel.class)
+        .getMappedResults();
+  }
+
+  @Override
+  public Stream<TaskModel> streamTaskModels(final Criteria criteria) {
+    log.debug("Streaming TaskModel with parent lookup - TaskManagerRepoImpl streamTaskModels");
+
+    // Read from a cursor in batches, so the result set is never held in memory as a whole
+    final TypedAggregation<Task> aggregation =
+        taskModelAggregation(Collections.singletonList(Aggregation.match(criteria)), null)
+            .withOptions(AggregationOptions.builder().cursorBatchSize(STREAM_BATCH_SIZE).build());
+
+    return mongoTemplate.aggregateStream(aggregation, TaskModel.class);
+  }
+
+  @Override
+  public List<TaskModel> findTaskModelPage(
+      final Criteria criteria, final long afterTaskId, final int limit) {
+    log.debug(
+        "Retrieving TaskModel page after task id {} - TaskManagerRepoImpl findTaskModelPage",
+        afterTaskId);
+
+    // Seek on the unique task_id index, then join only the rows of the page
+    final List<AggregationOperation> pageOperations =
+        Arrays.asList(
+            Aggregation.match(
+                new Criteria().andOperator(criteria, Criteria.where("task_id").gt(afterTaskId))),
+            Aggregation.sort(Sort.Direction.ASC, "taskId"),
+            Aggregation.limit(limit));
+
+    return mongoTemplate
+        .aggregate(taskModelAggregation(pageOperations, null), TaskModel.class)
+        .getMappedResults();
+  }
+
+  /**
+   * Read the tasks whose property is within from and to, ordered by the property then by task id.
+   * Later pages seek past the property value and task id of the last row read, so every page is
+   * served by the compound index of the property and task_id without skipping rows.
+   */
+  @Override
+  public List<TaskModel> findTaskModelRange(
+      final String property,
+      final Object from,
+      final Object to,
+      final Sort.Direction direction,
+      final Object afterValue,
+      final long afterTaskId,
+      final int limit) {
+    log.debug(
+        "Retrieving TaskModel with {} from {} to {} - TaskManagerRepoImpl findTaskModelRange",
+        property,
+        from,
+        to);
+
+    Criteria criteria = Criteria.where(property).gte(from).lte(to);
+    if (afterValue != null) {
+      final Criteria pastValue = Criteria.where(property);
+      final Criteria pastTaskId = Criteria.where("taskId");
+      if (direction.isAscending()) {
+        pastValue.gt(afterValue);
+        pastTaskId.gt(afterTaskId);
+      } else {
+        pastValue.lt(afterValue);
+        pastTaskId.lt(afterTaskId);
+      }
+      criteria =
+          new Criteria()
+              .andOperator(
+                  criteria,
+                  new Criteria()
+                      .orOperator(
+                          pastValue,
+                          new Criteria()
+                              .andOperator(Criteria.where(property).is(afterValue), pastTaskId)));
+    }
+
+    final List<AggregationOperation> rangeOperations =
+        Arrays.asList(
+            Aggregation.match(criteria),
+            Aggregation.sort(Sort.by(direction, property, "taskId")),
+            Aggregation.limit(limit));
+
+    return mongoTemplate
+        .aggregate(taskModelAggregation(rangeOperations, null), TaskModel.class)
+        .getMappedResults();
+  }
+
+  @Override
+  public List<TaskModel> searchTaskModels(final TaskModel taskModel) {
+    log.debug("Searching TaskModel with parent lookup - TaskManagerRepoImpl searchTaskModels");
+
+    return mongoTemplate
+        .aggregate(searchAggregation(taskModel), TaskModel.class)
+        .getMappedResults();
+  }
+
+  /**
+   * Search the words of the searchText in the task names and in the parent task names with the
+   * text indexes, most relevant first. Tasks are ranked by the score of their own name, or of
+   * their parent task name when it matches better. The priority and date fields of the TaskModel
+   * still filter the result, while the task and parentTask name fields are not used.
+   */
+  @Override
+  public List<TaskModel> searchTaskModelsByText(final TaskModel taskModel, final int limit) {
+    log.debug("Searching TaskModel by text - TaskManagerRepoImpl searchTaskModelsByText");
+
+    final TextCriteria textCriteria =
+        TextCriteria.forDefaultLanguage().matching(taskModel.getSearchText().trim());
+    final Criteria filterCriteria = buildSearchFilterCriteria(taskModel);
+
+    // Tasks whose own name matches, the $text match has to be the first stage
+    List<TaskModel> taskModelList =
+        mongoTemplate
+            .aggregate(
+                taskModelAggregation(
+                    Arrays.asList(
+                        Aggregation.match(textCriteria),
+                        Aggregation.match(filterCriteria),
+                        context ->
+                            new Document(
+                                "$addFields",
+                                new Document(TEXT_SCORE, new Document("$meta", "textScore"))),
+                        context ->
+                            new Document(
+                                "$sort", new Document(TEXT_SCORE, -1).append("task_id", 1)),
+                        Aggregation.limit(limit)),
+                    null),
+                TaskModel.class)
+            .getMappedResults();
+
+    // Tasks under a parent task whose name matches, scored as their parent task
+    final Aggregation parentTaskAggregation =
+        Aggregation.newAggregation(
+            Aggregation.match(textCriteria),
+            context ->
+                new Document(
+                    "$project",
+                    new Document("_id", 0)
+                        .append("parent_id", 1)
+                        .append(TEXT_SCORE, new Document("$meta", "textScore"))),
+            context -> new Document("$sort", new Document(TEXT_SCORE, -1)),
+            Aggregation.limit(limit));
+    Map<Long, Double> parentScores = new HashMap<>();
+    mongoTemplate
+        .aggregate(parentTaskAggregation, "parent_task", Document.class)
+        .forEach(
+            parentTask ->
+                parentScores.put(
+                    parentTask.get("parent_id", Number.class).longValue(),
+                    parentTask.get(TEXT_SCORE, Number.class).doubleValue()));
+
+    List<TaskModel> parentMatchList = Collections.emptyList();
+    if (!parentScores.isEmpty()) {
+      parentMatchList =
+          mongoTemplate
+              .aggregate(
+                  taskModelAggregation(
+                      Arrays.asList(
+                          Aggregation.match(
+                              new Criteria()
+                                  .andOperator(
+                                      Criteria.where("isParentCollection").is(true),
+                                      Criteria.where("parent_id").in(parentScores.keySet()),
+                                      filterCriteria)),
+                          Aggregation.sort(Sort.by("taskId")),
+                          Aggregation.limit(limit)),
+                      null),
+                  TaskModel.class)
+              .getMappedResults();
+    }
+
+    Map<Long, TaskModel> rankedTasks = new LinkedHashMap<>();
+    taskModelList.forEach(match -> rankedTasks.put(match.getTaskId(), match));
+    for (TaskModel match : parentMatchList) {
+      final Double parentScore = parentScores.get(match.getParentId());
+      final TaskModel nameMatch = rankedTasks.get(match.getTaskId());
+      if (nameMatch == null) {
+        match.setTextScore(parentScore);
+        rankedTasks.put(match.getTaskId(), match);
+      } else if (nameMatch.getTextScore() < parentScore) {
+        nameMatch.setTextScore(parentScore);
+      }
+    }
+
+    return rankedTasks.values().stream()
+        .sorted(
+            Comparator.comparing(TaskModel::getTextScore, Comparator.reverseOrder())
+                .thenComparing(TaskModel::getTaskId))
+        .limit(limit)
+        .toList();
+  }
+
+  /**
+   * Read the task and its descendants down to maxDepth levels with a single $graphLookup. Only
+   * tasks with isParentCollection = false are followed, as the parent_id of the other tasks is
+   * the id of a parent task and may collide with a task_id.
+   */
+  @Override
+  public List<Task> findSubtree(final long taskId, final int maxDepth) {
+    log.debug("Retrieving subtree of task {} - TaskManagerRepoImpl findSubtree", taskId);
+
+    return findWithGraphLookup(
+        taskId,
+        Aggregation.graphLookup("task")
+            .startWith("$task_id")
+            .connectFrom("task_id")
+            .connectTo("parent_id")
+            .restrict(Criteria.where("isParentCollection").is(false))
+            .maxDepth(maxDepth - 1)
+            .as(GRAPH_LOOKUP));
+  }
+
+  /**
+   * Read the task and the tasks reachable through its parent links up to maxDepth levels with a
+   * single $graphLookup. The lookup cannot stop at a task whose parent is a parent task, so the
+   * result may hold unrelated tasks and the lineage has to be followed by the caller.
+   */
+  @Override
+  public List<Task> findAncestors(final long taskId, final int maxDepth) {
+    log.debug("Retrieving ancestors of task {} - TaskManagerRepoImpl findAncestors", taskId);
+
+    return findWithGraphLookup(
+        taskId,
+        Aggregation.graphLookup("task")
+            .startWith("$parent_id")
+            .connectFrom("parent_id")
+            .connectTo("task_id")
+            .maxDepth(maxDepth - 1)
+            .as(GRAPH_LOOKUP));
+  }
+
+  private List<Task> findWithGraphLookup(final long taskId, final GraphLookupOperation lookup) {
+    final Aggregation aggregation =
+        Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("task_id").is(taskId)), Aggregation.limit(1), lookup);
+
+    final Document result =
+        mongoTemplate.aggregate(aggregation, "task", Document.class).getUniqueMappedResult();
+    if (result == null) {
+      return Collections.emptyList();
+    }
+
+    final List<Document> relatives = result.getList(GRAPH_LOOKUP, Document.class);
+    result.remove(GRAPH_LOOKUP);
+
+    final MongoConverter converter = mongoTemplate.getConverter();
+    List<Task> taskList = new ArrayList<>(relatives.size() + 1);
+    taskList.add(converter.read(Task.class, result));
+    relatives.forEach(relative -> taskList.add(converter.read(Task.class, relative)));
+
+    return taskList;
+  }
+
+  /** Aggregation of the tasks matching the search fields of the TaskModel with their parent. */
+  public static TypedAggregation<Task> searchAggregation(final TaskModel taskModel) {
+    final boolean hasParentTask = StringUtils.isNotBlank(taskModel.getParentTask());
+    final Criteria parentTaskCriteria =
+        hasParentTask ? Criteria.where("parentTask").is(taskModel.getParentTask().trim()) : null;
+
+    TypedAggregation<Task> aggregation =
+        taskModelAggregation(
+            Collections.singletonList(Aggregation.match(buildSearchCriteria(taskModel))),
+            parentTaskCriteria);
+    if (hasParentTask || StringUtils.isNotBlank(taskModel.getTask())) {
+      // Task and parent task names are compared ignoring case
+      aggregation =
+          aggregation.withOptions(
+              AggregationOptions.builder().collation(CASE_INSENSITIVE_COLLATION).build());
+    }
+    return aggregation;
+  }
+
+  /**
+   * Build the criteria on the task collection for the search fields of the TaskModel. A blank or
+   * missing field is not filtered on, and the priority range is only applied when both priorityFrom
+   * and priorityTo are greater than 0. The parent task name is matched after the parent lookup.
+   */
+  public static Criteria buildSearchCriteria(final TaskModel taskModel) {
+    List<Criteria> criteriaList = new ArrayList<>();
+
+    if (StringUtils.isNotBlank(taskModel.getTask())) {
+      criteriaList.add(Criteria.where("task").is(taskModel.getTask().trim()));
+    }
+    addSearchFilters(taskModel, criteriaList);
+
+    return criteriaList.isEmpty()
+        ? new Criteria()
+        : new Criteria().andOperator(criteriaList.toArray(new Criteria[0]));
+  }
+
+  /** Build the criteria for the priority and date search fields of the TaskModel. */
+  static Criteria buildSearchFilterCriteria(final TaskModel taskModel) {
+    List<Criteria> criteriaList = new ArrayList<>();
+    addSearchFilters(taskModel, criteriaList);
+
+    return criteriaList.isEmpty()
+        ? new Criteria()
+        : new Criteria().andOperator(criteriaList.toArray(new Criteria[0]));
+  }
+
+  private static void addSearchFilters(
+      final TaskModel taskModel, final List<Criteria> criteriaList) {
+    final int priorityFrom = taskModel.getPriorityFrom() == null ? 0 : taskModel.getPriorityFrom();
+    final int priorityTo = taskModel.getPriorityTo() == null ? 0 : taskModel.getPriorityTo();
+    if (priorityFrom > 0 && priorityTo > 0) {
+      criteriaList.add(Criteria.where("priority").gte(priorityFrom).lte(priorityTo));
+    }
+
+    if (taskModel.getStartDate() != null) {
+      criteriaList.add(Criteria.where("start_date").is(taskModel.getStartDate()));
+    }
+
+    if (taskModel.getEndDate() != null) {
+      criteriaList.add(Criteria.where("end_date").is(taskModel.getEndDate()));
+    }
+  }
+
+  /**
+   * Match the tasks in the task collection and join each of them with its parent, from the
+   * parent_task collection when isParentCollection is true and from the task collection otherwise,
+   * so only the matched tasks and their parents are read from the database.
+   *
+   * <p>Each row only has a key for the lookup of its own parent collection. The key of the other
+   * lookup is left out, and a missing key only matches documents without a parent_id or task_id,
+   * which every saved parent task and task has. So the other lookup is an index probe that finds
+   * nothing, instead of reading an unrelated document whose id collides with the parent_id.
+   *
+   * @param taskOperations the stages selecting the tasks, run before the parent lookup
+   * @param parentTaskCriteria the criteria on the joined parent task name, can be null
+   */
+  static TypedAggregation<Task> taskModelAggregation(
+      final List<AggregationOperation> taskOperations, final Criteria parentTaskCriteria) {
+    return taskModelAggregation(taskOperations, parentTaskCriteria, TaskModelFields.ALL);
+  }
+
+  /**
+   * Same as {@link #taskModelAggregation(List, Criteria)} projecting only the given TaskModel
+   * fields. Without parentTask and parent task criteria the parents are not looked up at all.
+   */
+  static TypedAggregation<Task> taskModelAggregation(
+      final List<AggregationOperation> taskOperations,
+      final Criteria parentTaskCriteria,
+      final Set<String> fields) {
+    List<AggregationOperation> operations = new ArrayList<>(taskOperations);
+    final boolean joinParents =
+        parentTaskCriteria != null || fields.contains(TaskModelFields.PARENT_TASK);
+    if (joinParents) {
+      operations.add(
+          context ->
+              new Document(
+                  "$addFields",
+                  new Document(PARENT_TASK_KEY, parentKey(true))
+                      .append(TASK_AS_PARENT_KEY, parentKey(false))));
+      operations.add(
+          Aggregation.lookup("parent_task", PARENT_TASK_KEY, "parent_id", PARENT_TASK_LOOKUP));
+      operations.add(
+          Aggregation.lookup("task", TASK_AS_PARENT_KEY, "task_id", TASK_AS_PARENT_LOOKUP));
+    }
+    operations.add(taskModelProjection(fields, joinParents));
+    if (parentTaskCriteria != null) {
+      operations.add(Aggregation.match(parentTaskCriteria));
+    }
+
+    return Aggregation.newAggregation(Task.class, operations);
+  }
+
+  private static AggregationOperation taskModelProjection(
+      final Set<String> fields, final boolean joinParents) {
+    final Document parentTask =
+        new Document(
+            "$cond",
+            Arrays.asList(
+                new Document("$eq", Arrays.asList("$isParentCollection", true)),
+                firstElement("$" + PARENT_TASK_LOOKUP + ".parent_task"),
+                firstElement("$" + TASK_AS_PARENT_LOOKUP + ".task")));
+
+    final Map<String, Object> fieldSources = new LinkedHashMap<>();
+    fieldSources.put(TaskModelFields.TASK_ID, "$task_id");
+    fieldSources.put(TaskModelFields.TASK, "$task");
+    fieldSources.put(TaskModelFields.PRIORITY, "$priority");
+    fieldSources.put(TaskModelFields.PARENT_ID, "$parent_id");
+    fieldSources.put(TaskModelFields.PARENT_TASK, parentTask);
+    fieldSources.put(TaskModelFields.START_DATE, "$start_date");
+    fieldSources.put(TaskModelFields.END_DATE, "$end_date");
+    fieldSources.put(TaskModelFields.IS_PARENT_COLLECTION, "$isParentCollection");
+
+    final Document projection = new Document("_id", 0);
+    fieldSources.forEach(
+        (field, source) -> {
+          // The parent task criteria match on parentTask after the projection
+          final boolean joinedParentTask = joinParents && TaskModelFields.PARENT_TASK.equals(field);
+          if (fields.contains(field) || joinedParentTask) {
+            projection.append(field, source);
+          }
+        });
+    // Only present after a text match, a missing field is left out by $project
+    projection.append(TEXT_SCORE, "$" + TEXT_SCORE);
+
+    return context -> new Document("$project", projection);
+  }
+
+  // The parent_id of the rows whose parent is in the parent_task collection, or in the task one
+  private static Document parentKey(final boolean inParentTaskCollection) {
+    return new Document(
+        "$cond",
+        Arrays.asList(
+            new Document("$eq", Arrays.asList("$isParentCollection", true)),
+            inParentTaskCollection ? "$parent_id" : "$$REMOVE",
+            inParentTaskCollection ? "$$REMOVE" : "$parent_id"));
+  }
+
+  private static Document firstElement(final String arrayField) {
+    return new Document("$arrayElemAt", Arrays.asList(arrayField, 0));
+  }
 }
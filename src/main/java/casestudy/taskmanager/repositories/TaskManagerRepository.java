@@ -3,16 +3,22 @@ package casestudy.taskmanager.repositories;
 import casestudy.taskmanager.domains.ParentTask;
 import casestudy.taskmanager.domains.Task;
 import casestudy.taskmanager.models.TaskModel;
-import org.springframework.beans.BeanUtils;
+import casestudy.taskmanager.util.TaskJoinUtil;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.util.CollectionUtils;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface TaskManagerRepository {
+  Collation CASE_INSENSITIVE_COLLATION =
+      Collation.of(Locale.ENGLISH).strength(Collation.ComparisonLevel.secondary());
 
   List<Task> findByAllTaskFields(
       final Long parentId,
@@ -22,53 +28,39 @@ public interface TaskManagerRepository {
       final Integer priority,
       final Boolean isParentCollection);
 
-  default List<TaskModel> getTaskModelList(
-      final List<ParentTask> parentTaskList, final List<Task> taskList) {
-    List<TaskModel> taskModelLst = new ArrayList<>();
-    if (!CollectionUtils.isEmpty(taskList) && !CollectionUtils.isEmpty(parentTaskList)) {
-      taskModelLst =
-          taskList
-              .parallelStream()
-              .map(
-                  task -> {
-                    TaskModel taskModel = new TaskModel();
-                    BeanUtils.copyProperties(task, taskModel);
+  /**
+   * @param fields the TaskModel fields to read, the others are left null and the parent lookups
+   *     are skipped when parentTask is not one of them
+   */
+  List<TaskModel> findTaskModels(final Criteria criteria, final Set<String> fields);
+
+  Stream<TaskModel> streamTaskModels(final Criteria criteria);
 
-                    // Find parent in parent
-                    if (task.getIsParentCollection()) {
+  List<TaskModel> findTaskModelPage(
+      final Criteria criteria, final long afterTaskId, final int limit);
 
-                      // Set the Parent Task if parent is in parent table
-                      Optional<ParentTask> parentTask =
-                          parentTaskList.stream()
-                              .filter(
-                                  parTask ->
-                                      parTask.getParentId().longValue()
-                                              == task.getParentId().longValue()
-                                          && task.getIsParentCollection())
-                              .findFirst();
+  List<TaskModel> findTaskModelRange(
+      final String property,
+      final Object from,
+      final Object to,
+      final Sort.Direction direction,
+      final Object afterValue,
+      final long afterTaskId,
+      final int limit);
 
-                      parentTask.ifPresent(value -> taskModel.setParentTask(value.getParentTask()));
-                    }
+  List<TaskModel> searchTaskModels(final TaskModel taskModel);
 
-                    // Find parent in task
-                    if (!task.getIsParentCollection()) {
+  List<TaskModel> searchTaskModelsByText(final TaskModel taskModel, final int limit);
 
-                      // Set the Parent Task if parent is in task table
-                      Optional<Task> parentTaskInTask =
-                          taskList.stream()
-                              .filter(
-                                  parTask ->
-                                      parTask.getTaskId().longValue()
-                                              == task.getParentId().longValue()
-                                          && !task.getIsParentCollection())
-                              .findFirst();
+  List<Task> findSubtree(final long taskId, final int maxDepth);
 
-                      parentTaskInTask.ifPresent(value -> taskModel.setParentTask(value.getTask()));
-                    }
+  List<Task> findAncestors(final long taskId, final int maxDepth);
 
-                    return taskModel;
-                  })
-              .collect(Collectors.toList());
+  default List<TaskModel> getTaskModelList(
+      final List<ParentTask> parentTaskList, final List<Task> taskList) {
+    List<TaskModel> taskModelLst = new ArrayList<>();
+    if (!CollectionUtils.isEmpty(taskList) && !CollectionUtils.isEmpty(parentTaskList)) {
+      taskModelLst = TaskJoinUtil.joinParents(parentTaskList, taskList);
     }
 
     return taskModelLst;
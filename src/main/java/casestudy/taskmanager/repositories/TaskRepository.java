@@ -4,11 +4,14 @@ import casestudy.taskmanager.domains.Task;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface TaskRepository extends MongoRepository<Task, Long> {
   List<Task> findByTaskId(final Long taskId);
 
+  List<Task> findByTaskIdIn(final Collection<Long> taskIds);
+
   List<Task> findByTask(final String task);
 
   List<Task> findByStartDate(final LocalDate startDate);
@@ -0,0 +1,95 @@
+package casestudy.taskmanager.service;
+
+import casestudy.taskmanager.models.AppKeyValue;
+import casestudy.taskmanager.util.MessageKeyUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Serialized i18n messages of the UI per locale, built once and served as bytes with an ETag.
+ *
+ * <p>Entries expire with spring.messages.cache-duration, so a reloaded message bundle is picked up
+ * when the message source reads it again. Without that property the bundles are never reloaded
+ * and neither are the entries. The locale comes from the Accept-Language header, so at most
+ * MAX_LOCALES locales are cached and the others are built on each request.
+ */
+@Component
+@Log4j2
+public class I18nMessagesCache {
+  private static final int MAX_LOCALES = 32;
+
+  private final MessageSource messageSource;
+  private final ObjectMapper objectMapper;
+  private final long expiryMillis;
+  @Getter private final Duration maxAge;
+
+  private final Map<Locale, I18nMessages> messagesByLocale = new ConcurrentHashMap<>();
+
+  public I18nMessagesCache(
+      final MessageSource messageSource,
+      final ObjectMapper objectMapper,
+      @Value("${spring.messages.cache-duration:#{null}}") final Duration cacheDuration,
+      @Value("${taskmanager.i18n.max-age:1d}") final Duration maxAge) {
+    this.messageSource = messageSource;
+    this.objectMapper = objectMapper;
+    this.expiryMillis = cacheDuration == null ? Long.MAX_VALUE : cacheDuration.toMillis();
+    this.maxAge = maxAge;
+  }
+
+  public I18nMessages get(final Locale locale) {
+    final I18nMessages cached = messagesByLocale.get(locale);
+    if (cached != null && !cached.isExpired(expiryMillis)) {
+      return cached;
+    }
+
+    final I18nMessages messages = build(locale);
+    if (cached != null || messagesByLocale.size() < MAX_LOCALES) {
+      messagesByLocale.put(locale, messages);
+    }
+    return messages;
+  }
+
+  private I18nMessages build(final Locale locale) {
+    log.debug("Building i18n messages for locale {}", locale);
+
+    final List<AppKeyValue> appMessageList =
+        MessageKeyUtil.getAppKeys().stream()
+            .map(key -> new AppKeyValue(key, messageSource.getMessage(key, null, locale)))
+            .collect(Collectors.toList());
+
+    try {
+      final byte[] json = objectMapper.writeValueAsBytes(appMessageList);
+      final String eTag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+
+      return new I18nMessages(json, eTag, System.currentTimeMillis());
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Failed to serialize the i18n messages", ex);
+    }
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class I18nMessages {
+    private final byte[] json;
+    private final String eTag;
+    private final long builtAtMillis;
+
+    private boolean isExpired(final long expiryMillis) {
+      return System.currentTimeMillis() - builtAtMillis >= expiryMillis;
+    }
+  }
+}
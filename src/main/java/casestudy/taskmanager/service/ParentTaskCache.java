@@ -0,0 +1,192 @@
+package casestudy.taskmanager.service;
+
+import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.models.CacheStats;
+import casestudy.taskmanager.repositories.ParentTaskRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of the parent_task collection, indexed by parentId and by parentTask name.
+ *
+ * <p>The collection is small and rarely changes, so it is loaded fully once and kept up to date
+ * by {@link #put(ParentTask)} whenever a parent task is saved. A lookup that misses the cache is
+ * read from the database and added to the cache, which picks up parent tasks added by other nodes.
+ * Copies are stored and returned, so callers updating a returned ParentTask before saving it do
+ * not change the cached entries.
+ *
+ * <p>A reload builds new maps next to the live ones and publishes them in a single swap, so
+ * readers see either the previous or the reloaded entries, never a partly cleared cache. Parent
+ * tasks put while the collection is read are applied again to the reloaded maps before the swap.
+ */
+@Component
+@Log4j2
+public class ParentTaskCache {
+  private final ParentTaskRepository parentTaskRepository;
+
+  private final Object writeLock = new Object();
+  private volatile Entries entries =
+      new Entries(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+  private volatile boolean fullyLoaded;
+  // Parent tasks put while a reload reads the collection, null when no reload is running
+  private List<ParentTask> putsDuringLoad;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  public ParentTaskCache(final ParentTaskRepository parentTaskRepository) {
+    this.parentTaskRepository = parentTaskRepository;
+  }
+
+  /** Reload the whole parent_task collection into the cache. */
+  public synchronized void load() {
+    synchronized (writeLock) {
+      putsDuringLoad = new ArrayList<>();
+    }
+
+    try {
+      List<ParentTask> allParentTasks = parentTaskRepository.findAll();
+
+      Entries loaded = new Entries(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+      for (ParentTask parentTask : allParentTasks) {
+        ParentTask copy = copyOf(parentTask);
+        if (copy.getParentId() != null) {
+          loaded.byId().putIfAbsent(copy.getParentId(), copy);
+        }
+        if (copy.getParentTask() != null) {
+          loaded.byName().putIfAbsent(copy.getParentTask(), copy);
+        }
+      }
+
+      synchronized (writeLock) {
+        // A save made after its parent task was read must not be undone by the swap
+        putsDuringLoad.forEach(loaded::put);
+
+        // Entries not in the collection anymore are dropped by the reload
+        entries.byId().keySet().stream()
+            .filter(parentId -> !loaded.byId().containsKey(parentId))
+            .forEach(parentId -> evictions.incrementAndGet());
+
+        entries = loaded;
+        fullyLoaded = true;
+      }
+
+      log.debug("Loaded {} parent tasks into the cache", loaded.byId().size());
+    } finally {
+      synchronized (writeLock) {
+        putsDuringLoad = null;
+      }
+    }
+  }
+
+  public List<ParentTask> findAll() {
+    if (!fullyLoaded) {
+      misses.incrementAndGet();
+      load();
+    } else {
+      hits.incrementAndGet();
+    }
+
+    Map<Long, ParentTask> parentTaskById = entries.byId();
+    List<ParentTask> allParentTasks = new ArrayList<>(parentTaskById.size());
+    parentTaskById.values().forEach(parentTask -> allParentTasks.add(copyOf(parentTask)));
+    allParentTasks.sort(Comparator.comparing(ParentTask::getParentId));
+
+    return allParentTasks;
+  }
+
+  public List<ParentTask> findByParentId(final Long parentId) {
+    ParentTask parentTask = entries.byId().get(parentId);
+    if (parentTask != null) {
+      hits.incrementAndGet();
+      return Collections.singletonList(copyOf(parentTask));
+    }
+
+    misses.incrementAndGet();
+    return cacheFirst(parentTaskRepository.findByParentId(parentId));
+  }
+
+  public List<ParentTask> findByParentTask(final String parentTaskName) {
+    ParentTask parentTask =
+        parentTaskName == null ? null : entries.byName().get(parentTaskName);
+    if (parentTask != null) {
+      hits.incrementAndGet();
+      return Collections.singletonList(copyOf(parentTask));
+    }
+
+    misses.incrementAndGet();
+    return cacheFirst(parentTaskRepository.findByParentTask(parentTaskName));
+  }
+
+  /** Write-through of a saved parent task, replacing the entry of a renamed parent task. */
+  public void put(final ParentTask parentTask) {
+    if (parentTask == null || parentTask.getParentId() == null) {
+      return;
+    }
+
+    ParentTask copy = copyOf(parentTask);
+    synchronized (writeLock) {
+      if (entries.put(copy)) {
+        evictions.incrementAndGet();
+      }
+      if (putsDuringLoad != null) {
+        putsDuringLoad.add(copy);
+      }
+    }
+  }
+
+  public CacheStats getStats() {
+    return new CacheStats(hits.get(), misses.get(), evictions.get(), entries.byId().size());
+  }
+
+  private List<ParentTask> cacheFirst(final List<ParentTask> parentTaskList) {
+    if (parentTaskList == null || parentTaskList.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    ParentTask parentTask = parentTaskList.get(0);
+    if (parentTask.getParentId() != null) {
+      ParentTask copy = copyOf(parentTask);
+      // A miss added to the entries being replaced is read again after the reload
+      Entries current = entries;
+      current.byId().putIfAbsent(copy.getParentId(), copy);
+      if (copy.getParentTask() != null) {
+        current.byName().putIfAbsent(copy.getParentTask(), copy);
+      }
+    }
+    return Collections.singletonList(copyOf(parentTask));
+  }
+
+  private ParentTask copyOf(final ParentTask parentTask) {
+    ParentTask copy = new ParentTask(parentTask.getParentId(), parentTask.getParentTask());
+    copy.setId(parentTask.getId());
+
+    return copy;
+  }
+
+  private record Entries(Map<Long, ParentTask> byId, Map<String, ParentTask> byName) {
+    /** @return true when the previous name of a renamed parent task was evicted */
+    private boolean put(final ParentTask parentTask) {
+      ParentTask previous = byId.put(parentTask.getParentId(), parentTask);
+      boolean evicted = false;
+      if (previous != null
+          && previous.getParentTask() != null
+          && !previous.getParentTask().equals(parentTask.getParentTask())) {
+        evicted = byName.remove(previous.getParentTask(), previous);
+      }
+      if (parentTask.getParentTask() != null) {
+        byName.put(parentTask.getParentTask(), parentTask);
+      }
+      return evicted;
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package casestudy.taskmanager.service;
+
+import casestudy.taskmanager.domains.ParentTaskStats;
+import casestudy.taskmanager.domains.Task;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the active and ended task counters of every parent task in the parent_task_stats
+ * collection, so the dashboard reads one document per parent task instead of every task.
+ *
+ * <p>Counters are moved with $inc as tasks are saved. A failed counter update does not fail the
+ * task save, it is counted as taskmanager.parent-task-stats.update.failed; {@link #reconcile()}
+ * recomputes all counters from the task collection with $group and corrects any drift, including
+ * drift from tasks written outside of this service.
+ */
+@Component
+@Log4j2
+public class ParentTaskStatsStore {
+  private static final int ACTIVE = 0;
+  private static final int ENDED = 1;
+  private static final int PRIORITY_SUM = 2;
+
+  private final MongoTemplate mongoTemplate;
+  private final Counter failedUpdates;
+
+  public ParentTaskStatsStore(
+      final MongoTemplate mongoTemplate, final MeterRegistry meterRegistry) {
+    this.mongoTemplate = mongoTemplate;
+    this.failedUpdates = meterRegistry.counter("taskmanager.parent-task-stats.update.failed");
+  }
+
+  /**
+   * Move the counters for a saved task.
+   *
+   * @param previous the task as it was before the save, null for a new task
+   * @param saved the task as saved
+   */
+  public void recordSave(final Task previous, final Task saved) {
+    Map<Long, long[]> deltas = new HashMap<>();
+    if (previous != null) {
+      addContribution(deltas, previous, -1);
+    }
+    addContribution(deltas, saved, 1);
+    apply(deltas);
+  }
+
+  public void recordAdded(final Collection<Task> addedTasks) {
+    Map<Long, long[]> deltas = new HashMap<>();
+    addedTasks.forEach(task -> addContribution(deltas, task, 1));
+    apply(deltas);
+  }
+
+  public List<ParentTaskStats> findAll() {
+    return mongoTemplate.findAll(ParentTaskStats.class);
+  }
+
+  /**
+   * Recompute the counters of every parent task from the task collection.
+   *
+   * <p>Saves keep moving the counters with $inc while the pass runs, so a counter is only replaced
+   * where it still holds the value read before the $group. A parent task whose counters moved
+   * during the pass is left to the next pass. So is a save whose $inc lands after the pass while
+   * its task was already counted by the $group.
+   */
+  public synchronized void reconcile() {
+    // Read before the $group, so any $inc landing after the $group fails the compare below
+    final Map<Long, ParentTaskStats> stored =
+        findAll().stream()
+            .collect(Collectors.toMap(ParentTaskStats::getParentId, stats -> stats, (a, b) -> a));
+
+    final Criteria active = Criteria.where("priority").gte(0);
+    final TypedAggregation<Task> aggregation =
+        Aggregation.newAggregation(
+            Task.class,
+            Aggregation.match(
+                Criteria.where("isParentCollection").is(true).and("priority").ne(null)),
+            Aggregation.group("parentId")
+                .sum(ConditionalOperators.when(active).then(1).otherwise(0))
+                .as("active_count")
+                .sum(ConditionalOperators.when(active).then(0).otherwise(1))
+                .as("ended_count")
+                .sum(ConditionalOperators.when(active).thenValueOf("priority").otherwise(0))
+                .as("active_priority_sum"));
+
+    final List<ParentTaskStats> computed =
+        mongoTemplate.aggregate(aggregation, ParentTaskStats.class).getMappedResults();
+
+    final BulkOperations bulkOperations =
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ParentTaskStats.class);
+    int drifted = 0;
+    for (ParentTaskStats stats : computed) {
+      final ParentTaskStats read = stored.remove(stats.getParentId());
+      if (read == null) {
+        // Only inserted when no save created the counters in the meantime
+        drifted++;
+        bulkOperations.upsert(
+            Query.query(Criteria.where("_id").is(stats.getParentId())),
+            new Update()
+                .setOnInsert("active_count", stats.getActiveCount())
+                .setOnInsert("ended_count", stats.getEndedCount())
+                .setOnInsert("active_priority_sum", stats.getActivePrioritySum()));
+      } else if (!stats.equals(read)) {
+        drifted++;
+        bulkOperations.updateOne(
+            unchangedSince(read),
+            new Update()
+                .set("active_count", stats.getActiveCount())
+                .set("ended_count", stats.getEndedCount())
+                .set("active_priority_sum", stats.getActivePrioritySum()));
+      }
+    }
+
+    // Counters left over are of parent tasks that have no task anymore
+    for (ParentTaskStats read : stored.values()) {
+      drifted++;
+      bulkOperations.remove(unchangedSince(read));
+    }
+
+    if (drifted > 0) {
+      final BulkWriteResult result = bulkOperations.execute();
+      final int corrected =
+          result.getModifiedCount() + result.getUpserts().size() + result.getDeletedCount();
+      log.debug(
+          "Reconciled parent task stats, corrected {} of {} drifted parent tasks",
+          corrected,
+          drifted);
+    } else {
+      log.debug("Reconciled parent task stats, no drift");
+    }
+  }
+
+  // Matches the counters of a parent task only while they still hold the values read
+  private static Query unchangedSince(final ParentTaskStats read) {
+    return Query.query(
+        Criteria.where("_id")
+            .is(read.getParentId())
+            .and("active_count")
+            .is(read.getActiveCount())
+            .and("ended_count")
+            .is(read.getEndedCount())
+            .and("active_priority_sum")
+            .is(read.getActivePrioritySum()));
+  }
+
+  // Only tasks with a parent task are counted, tasks with another task as parent are not
+  private static void addContribution(
+      final Map<Long, long[]> deltas, final Task task, final int sign) {
+    if (!Boolean.TRUE.equals(task.getIsParentCollection())
+        || task.getParentId() == null
+        || task.getPriority() == null) {
+      return;
+    }
+
+    long[] delta = deltas.computeIfAbsent(task.getParentId(), parentId -> new long[3]);
+    if (task.getPriority() >= 0) {
+      delta[ACTIVE] += sign;
+      delta[PRIORITY_SUM] += (long) sign * task.getPriority();
+    } else {
+      delta[ENDED] += sign;
+    }
+  }
+
+  private void apply(final Map<Long, long[]> deltas) {
+    try {
+      deltas.forEach(
+          (parentId, delta) -> {
+            if (delta[ACTIVE] != 0 || delta[ENDED] != 0 || delta[PRIORITY_SUM] != 0) {
+              mongoTemplate.upsert(
+                  Query.query(Criteria.where("_id").is(parentId)),
+                  new Update()
+                      .inc("active_count", delta[ACTIVE])
+                      .inc("ended_count", delta[ENDED])
+                      .inc("active_priority_sum", delta[PRIORITY_SUM]),
+                  ParentTaskStats.class);
+            }
+          });
+    } catch (RuntimeException ex) {
+      failedUpdates.increment();
+      log.error("Failed to update parent task stats, left to reconciliation: {}", ex.getMessage());
+    }
+  }
+}
@@ -0,0 +1,159 @@
+package casestudy.taskmanager.service;
+
+import casestudy.taskmanager.models.TaskModel;
+import casestudy.taskmanager.repositories.ReactiveTaskManagerRepoImpl;
+import casestudy.taskmanager.util.TaskModelFields;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Reactive reads of the reactive profile. Task lists are streamed from the reactive aggregation as
+ * they are joined; operations that still depend on the blocking {@link TaskManagerService} (writes,
+ * keyset pages, the task by id merge) run on the bounded elastic scheduler with the caller locale.
+ *
+ * <p>Only the task list reads are non-blocking. The writes keep the blocking driver because they
+ * share the parent task cache, the sequence blocks and the stats counters with the servlet stack,
+ * so under load they are bounded by the threads of the bounded elastic scheduler.
+ */
+@Log4j2
+@Service
+@Profile("reactive")
+public class ReactiveTaskManagerService {
+  private final ReactiveTaskManagerRepoImpl reactiveTaskManagerRepo;
+  private final TaskManagerService taskManagerService;
+
+  public ReactiveTaskManagerService(
+      final ReactiveTaskManagerRepoImpl reactiveTaskManagerRepo,
+      final TaskManagerService taskManagerService) {
+    this.reactiveTaskManagerRepo = reactiveTaskManagerRepo;
+    this.taskManagerService = taskManagerService;
+  }
+
+  /** All the tasks with every field, as written by the export. */
+  public Flux<TaskModel> getAllTasks() {
+    log.debug("Processing ReactiveTaskManagerService getAllTasks");
+
+    return reactiveTaskManagerRepo.findTaskModels(new Criteria(), TaskModelFields.ALL);
+  }
+
+  /** @param fields the comma separated TaskModel fields to return, all of them when blank */
+  public Flux<TaskModel> getAllTasks(final String fields, final LocaleContext localeContext) {
+    log.debug("Processing ReactiveTaskManagerService getAllTasks");
+
+    return findTaskModels(new Criteria(), fields, localeContext);
+  }
+
+  public Flux<TaskModel> getAllParentsAndActiveTasks(
+      final String fields, final LocaleContext localeContext) {
+    log.debug("Processing ReactiveTaskManagerService getAllParentsAndActiveTasks");
+
+    // A cold parent task cache reads the collection with the blocking driver, off the event loop
+    return parseFields(fields, localeContext)
+        .flatMapMany(
+            fieldSet ->
+                Mono.fromCallable(taskManagerService::getAllParentTaskModels)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMapIterable(parentTaskModels -> parentTaskModels)
+                    .map(taskModel -> TaskModelFields.retain(taskModel, fieldSet))
+                    .concatWith(
+                        reactiveTaskManagerRepo.findTaskModels(
+                            TaskManagerService.activeTaskCriteria(), fieldSet)));
+  }
+
+  public Flux<TaskModel> getTaskByName(
+      final String taskName, final String fields, final LocaleContext localeContext) {
+    log.debug("Processing ReactiveTaskManagerService getTaskByName");
+
+    return findTaskModels(Criteria.where("task").is(taskName), fields, localeContext);
+  }
+
+  public Flux<TaskModel> getTaskByStartDate(
+      final LocalDate startDate, final String fields, final LocaleContext localeContext) {
+    log.debug("Processing ReactiveTaskManagerService getTaskByStartDate({})", startDate);
+
+    return findTaskModels(Criteria.where("start_date").is(startDate), fields, localeContext);
+  }
+
+  public Flux<TaskModel> getTaskByEndDate(
+      final LocalDate endDate, final String fields, final LocaleContext localeContext) {
+    log.debug("Processing ReactiveTaskManagerService getTaskByEndDate({})", endDate);
+
+    return findTaskModels(Criteria.where("end_date").is(endDate), fields, localeContext);
+  }
+
+  public Flux<TaskModel> getTaskByPriority(
+      final String priority, final String fields, final LocaleContext localeContext) {
+    log.debug("Processing ReactiveTaskManagerService getTaskByPriority({})", priority);
+
+    return Flux.defer(
+        () ->
+            findTaskModels(
+                Criteria.where("priority").is(Integer.parseInt(priority)), fields, localeContext));
+  }
+
+  private Flux<TaskModel> findTaskModels(
+      final Criteria criteria, final String fields, final LocaleContext localeContext) {
+    return parseFields(fields, localeContext)
+        .flatMapMany(fieldSet -> reactiveTaskManagerRepo.findTaskModels(criteria, fieldSet));
+  }
+
+  // Validated on the calling thread, the locale is only bound for the error message
+  private Mono<Set<String>> parseFields(final String fields, final LocaleContext localeContext) {
+    return Mono.fromCallable(
+        () -> {
+          LocaleContextHolder.setLocaleContext(localeContext);
+          try {
+            return taskManagerService.parseFields(fields);
+          } finally {
+            LocaleContextHolder.resetLocaleContext();
+          }
+        });
+  }
+
+  public Flux<TaskModel> searchTasks(final TaskModel taskModel, final LocaleContext localeContext) {
+    log.debug("Processing ReactiveTaskManagerService searchTasks");
+
+    // The word search merges two ranked queries, it runs on the blocking service
+    if (StringUtils.isNotBlank(taskModel.getSearchText())) {
+      return withLocale(localeContext, () -> taskManagerService.searchTasks(taskModel))
+          .flatMapIterable(taskModelList -> taskModelList);
+    }
+    return withLocale(
+            localeContext,
+            () -> {
+              taskManagerService.validateSearch(taskModel);
+              return taskModel;
+            })
+        .flatMapMany(reactiveTaskManagerRepo::searchTaskModels);
+  }
+
+  /**
+   * Run a call against the blocking service off the event loop. The locale of the exchange is
+   * bound for the duration of the call so that validation messages are translated as in the
+   * servlet stack.
+   */
+  public <T> Mono<T> withLocale(final LocaleContext localeContext, final Callable<T> call) {
+    return Mono.fromCallable(
+            () -> {
+              LocaleContextHolder.setLocaleContext(localeContext);
+              try {
+                return call.call();
+              } finally {
+                LocaleContextHolder.resetLocaleContext();
+              }
+            })
+        .subscribeOn(Schedulers.boundedElastic());
+  }
+}
@@ -0,0 +1,335 @@
+package casestudy.taskmanager.service;
+
+import casestudy.taskmanager.config.TaskChangeFeedConfig;
+import casestudy.taskmanager.models.TaskChangeEvent;
+import casestudy.taskmanager.models.TaskModel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes the task and parent task changes made through this node to the subscribed clients as
+ * Server-Sent Events, so they no longer have to poll the task lists.
+ *
+ * <p>An event is serialized once and queued on the bounded buffer of every subscriber, then
+ * written by the change feed executor, so a save never waits on a client. A subscriber whose
+ * buffer is full is a slow consumer: with the drop policy its oldest event is dropped, with the
+ * disconnect policy it is disconnected and its client reconnects and reloads the lists. Events
+ * carry an increasing id, so a client seeing a gap in the ids knows events were dropped. An idle
+ * subscriber only holds its emitter and an empty buffer.
+ *
+ * <p>A write to a client that stopped reading blocks its executor thread until the container
+ * gives up on the connection. The heartbeat sweep disconnects a subscriber whose write has run
+ * past the send timeout, and the pool gets one more thread for as long as that write holds its
+ * own, so the other subscribers keep receiving events. A drain pass writes a bounded number of
+ * events before the subscriber goes back to the end of the executor queue.
+ *
+ * <p>Created by {@link TaskChangeFeedConfig}, it shuts its executor down with the context.
+ */
+@Log4j2
+public class TaskChangeFeed implements DisposableBean {
+  public static final String DROP_POLICY = "drop";
+  public static final String DISCONNECT_POLICY = "disconnect";
+
+  // Sent as an SSE comment, ignored by EventSource clients
+  private static final FeedEvent HEARTBEAT = new FeedEvent(0, null, null);
+  private static final int MAX_EVENTS_PER_DRAIN = 16;
+
+  private final ObjectMapper objectMapper;
+  private final ThreadPoolTaskExecutor changeFeedExecutor;
+  private final int bufferSize;
+  private final boolean disconnectSlowConsumers;
+  private final long timeoutMs;
+  private final int maxSubscribers;
+  private final long retryAfterSeconds;
+  private final long sendTimeoutNanos;
+  private final int maxStalledWrites;
+  private final Counter droppedEvents;
+  private final Counter disconnectedSubscribers;
+  private final Counter stalledWrites;
+
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final AtomicLong eventId = new AtomicLong();
+  // Threads added to the pool in place of the ones held by a stalled write
+  private int stalledThreads;
+
+  public TaskChangeFeed(
+      final ObjectMapper objectMapper,
+      final ThreadPoolTaskExecutor changeFeedExecutor,
+      final MeterRegistry meterRegistry,
+      final int bufferSize,
+      final String policy,
+      final long timeoutMs,
+      final int maxSubscribers,
+      final long retryAfterSeconds,
+      final long sendTimeoutMs,
+      final int maxStalledWrites) {
+    this.objectMapper = objectMapper;
+    this.changeFeedExecutor = changeFeedExecutor;
+    this.bufferSize = bufferSize;
+    this.disconnectSlowConsumers = DISCONNECT_POLICY.equalsIgnoreCase(policy);
+    this.timeoutMs = timeoutMs;
+    this.maxSubscribers = maxSubscribers;
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+    this.maxStalledWrites = maxStalledWrites;
+    this.droppedEvents = meterRegistry.counter("taskmanager.change-feed.dropped");
+    this.disconnectedSubscribers = meterRegistry.counter("taskmanager.change-feed.disconnected");
+    this.stalledWrites = meterRegistry.counter("taskmanager.change-feed.stalled");
+    meterRegistry.gaugeCollectionSize(
+        "taskmanager.change-feed.subscribers", Collections.emptyList(), subscribers);
+  }
+
+  /** A new subscriber, or empty when the feed already has its maximum number of subscribers. */
+  public Optional<SseEmitter> subscribe() {
+    return subscribe(new SseEmitter(timeoutMs));
+  }
+
+  Optional<SseEmitter> subscribe(final SseEmitter emitter) {
+    if (subscribers.size() >= maxSubscribers) {
+      return Optional.empty();
+    }
+
+    final Subscriber subscriber = new Subscriber(emitter);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(ex -> subscribers.remove(subscriber));
+    subscribers.add(subscriber);
+    log.debug("Change feed subscriber added, {} subscribers", subscribers.size());
+
+    return Optional.of(emitter);
+  }
+
+  public void publish(final String type, final TaskModel taskModel) {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+
+    final String data;
+    try {
+      data = objectMapper.writeValueAsString(new TaskChangeEvent(type, taskModel));
+    } catch (JsonProcessingException ex) {
+      log.error("Failed to serialize the {} change event: {}", type, ex.getMessage());
+      return;
+    }
+
+    final FeedEvent event = new FeedEvent(eventId.incrementAndGet(), type, data);
+    subscribers.forEach(subscriber -> offer(subscriber, event));
+  }
+
+  /**
+   * Queue a heartbeat for the idle subscribers, a failed write removes the subscriber. A
+   * subscriber whose write has been blocked for longer than the send timeout is disconnected.
+   */
+  public void heartbeat() {
+    final long now = System.nanoTime();
+    subscribers.forEach(
+        subscriber -> {
+          final long sendStarted = subscriber.sendStartedNanos;
+          if (sendStarted != 0 && now - sendStarted > sendTimeoutNanos) {
+            disconnectStalled(subscriber);
+          } else if (subscriber.offerIfIdle(HEARTBEAT)) {
+            scheduleDrain(subscriber);
+          }
+        });
+  }
+
+  public int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  /** Seconds a client refused for a full feed is told to wait before subscribing again. */
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+
+  @Override
+  public void destroy() {
+    changeFeedExecutor.shutdown();
+  }
+
+  private void offer(final Subscriber subscriber, final FeedEvent event) {
+    if (subscriber.offer(event, bufferSize, disconnectSlowConsumers)) {
+      scheduleDrain(subscriber);
+    } else if (disconnectSlowConsumers) {
+      log.debug("Disconnecting a change feed subscriber with {} pending events", bufferSize);
+      disconnect(subscriber);
+    }
+  }
+
+  private void scheduleDrain(final Subscriber subscriber) {
+    if (subscriber.draining.compareAndSet(false, true)) {
+      try {
+        changeFeedExecutor.execute(() -> drain(subscriber));
+      } catch (RejectedExecutionException ex) {
+        disconnect(subscriber);
+      }
+    }
+  }
+
+  private void drain(final Subscriber subscriber) {
+    FeedEvent event;
+    int written = 0;
+    while (written < MAX_EVENTS_PER_DRAIN && (event = subscriber.poll()) != null) {
+      boolean sent = true;
+      subscriber.sendStartedNanos = System.nanoTime();
+      try {
+        subscriber.emitter.send(toSseEvent(event));
+      } catch (IOException | IllegalStateException ex) {
+        sent = false;
+      } finally {
+        subscriber.sendStartedNanos = 0;
+      }
+
+      if (subscriber.stalled) {
+        // Disconnected by the heartbeat while this write was blocked, the thread is back
+        releaseStalledThread();
+        completeQuietly(subscriber.emitter);
+        return;
+      }
+      if (!sent) {
+        // The client went away, the emitter callbacks may not be called for it
+        subscribers.remove(subscriber);
+        return;
+      }
+      written++;
+    }
+
+    subscriber.draining.set(false);
+    // Events left by a capped pass, or queued after the last poll but before the flag was
+    // cleared, are drained by a new pass at the end of the executor queue
+    if (subscriber.hasPending()) {
+      scheduleDrain(subscriber);
+    }
+  }
+
+  private void disconnectStalled(final Subscriber subscriber) {
+    if (!subscribers.remove(subscriber)) {
+      return;
+    }
+    subscriber.stalled = true;
+    stalledWrites.increment();
+    disconnectedSubscribers.increment();
+    log.debug("Disconnecting a change feed subscriber whose write is blocked");
+
+    synchronized (this) {
+      if (stalledThreads < maxStalledWrites) {
+        stalledThreads++;
+        changeFeedExecutor.setMaxPoolSize(changeFeedExecutor.getMaxPoolSize() + 1);
+        changeFeedExecutor.setCorePoolSize(changeFeedExecutor.getCorePoolSize() + 1);
+      }
+    }
+  }
+
+  private synchronized void releaseStalledThread() {
+    if (stalledThreads > 0) {
+      stalledThreads--;
+      changeFeedExecutor.setCorePoolSize(changeFeedExecutor.getCorePoolSize() - 1);
+      changeFeedExecutor.setMaxPoolSize(changeFeedExecutor.getMaxPoolSize() - 1);
+    }
+  }
+
+  private static void completeQuietly(final SseEmitter emitter) {
+    try {
+      emitter.complete();
+    } catch (RuntimeException ex) {
+      log.debug("Change feed subscriber already closed: {}", ex.getMessage());
+    }
+  }
+
+  private void disconnect(final Subscriber subscriber) {
+    if (subscribers.remove(subscriber)) {
+      disconnectedSubscribers.increment();
+      // Completing waits for a write in progress, which must not hold up the save publishing
+      try {
+        changeFeedExecutor.execute(subscriber.emitter::complete);
+      } catch (RejectedExecutionException ex) {
+        log.debug("Change feed subscriber left to its timeout");
+      }
+    }
+  }
+
+  private static SseEmitter.SseEventBuilder toSseEvent(final FeedEvent event) {
+    if (event == HEARTBEAT) {
+      return SseEmitter.event().comment("heartbeat");
+    }
+    return SseEmitter.event()
+        .id(Long.toString(event.id))
+        .name(event.type)
+        .data(event.data, MediaType.APPLICATION_JSON);
+  }
+
+  private record FeedEvent(long id, String type, String data) {}
+
+  private class Subscriber {
+    private final SseEmitter emitter;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    // Start of the write in progress, 0 when no write is running
+    private volatile long sendStartedNanos;
+    private volatile boolean stalled;
+    // Created on the first event, most subscribers are idle most of the time
+    private ArrayDeque<FeedEvent> buffer;
+
+    private Subscriber(final SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    /** False when the buffer is full and the subscriber is disconnected instead of dropping. */
+    private synchronized boolean offer(
+        final FeedEvent event, final int capacity, final boolean rejectWhenFull) {
+      if (buffer == null) {
+        buffer = new ArrayDeque<>(Math.min(capacity, 8));
+      }
+      if (buffer.size() >= capacity) {
+        if (rejectWhenFull) {
+          return false;
+        }
+        buffer.pollFirst();
+        droppedEvents.increment();
+      }
+      buffer.addLast(event);
+      return true;
+    }
+
+    private synchronized boolean offerIfIdle(final FeedEvent event) {
+      if (buffer != null && !buffer.isEmpty()) {
+        return false;
+      }
+      if (buffer == null) {
+        buffer = new ArrayDeque<>(8);
+      }
+      buffer.addLast(event);
+      return true;
+    }
+
+    private synchronized FeedEvent poll() {
+      final FeedEvent event = buffer == null ? null : buffer.pollFirst();
+      // Give the memory of a burst back once it is written
+      if (buffer != null && buffer.isEmpty()) {
+        buffer = null;
+      }
+      return event;
+    }
+
+    private synchronized boolean hasPending() {
+      return buffer != null && !buffer.isEmpty();
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package casestudy.taskmanager.service;
+
+import casestudy.taskmanager.domains.CollectionVersion;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Version of the task and parent_task collections, used as the strong ETag of the full task lists
+ * so an unchanged poll is answered with 304 without reading the lists.
+ *
+ * <p>The version is a counter document of the collection_version collection, incremented after
+ * every task or parent task write, so every node answers with the same ETag and a write made
+ * through one node changes the ETag served by all of them. Reading it costs one lookup by id.
+ * Parent tasks written by other nodes still only reach the parent task cache of this node on its
+ * next reload.
+ *
+ * <p>Lists served from the task read view follow the change stream, which may lag the counter.
+ * They use a version of this node instead, bumped by every change applied to the view, with the
+ * start time of the node so it never matches the ETag of another node or of a previous run.
+ */
+@Component
+@Log4j2
+public class TaskCollectionVersion {
+  static final String TASKS_VERSION_ID = "tasks";
+
+  private final MongoTemplate mongoTemplate;
+  private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+  private final AtomicLong readViewVersion = new AtomicLong();
+
+  public TaskCollectionVersion(final MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /** Called once the write is done, a list read before it then keeps the previous ETag. */
+  public void bump() {
+    readViewVersion.incrementAndGet();
+    try {
+      mongoTemplate.upsert(
+          query(where("_id").is(TASKS_VERSION_ID)),
+          new Update().inc("version", 1).setOnInsert("epoch", UUID.randomUUID().toString()),
+          CollectionVersion.class);
+    } catch (RuntimeException ex) {
+      // The write itself succeeded, only the clients polling with an ETag miss it
+      log.error("Failed to bump the task collection version: {}", ex.getMessage());
+    }
+  }
+
+  /** Read before the list, so a list never goes out with the ETag of a later write. */
+  public String getETag() {
+    final CollectionVersion collectionVersion =
+        mongoTemplate.findById(TASKS_VERSION_ID, CollectionVersion.class);
+    if (collectionVersion == null) {
+      return "\"0\"";
+    }
+    return "\"" + collectionVersion.getEpoch() + "-" + collectionVersion.getVersion() + "\"";
+  }
+
+  /** Called once a change is applied to the task read view of this node. */
+  public void bumpReadView() {
+    readViewVersion.incrementAndGet();
+  }
+
+  public String getReadViewETag() {
+    return "\"" + epoch + "-" + readViewVersion.get() + "\"";
+  }
+}
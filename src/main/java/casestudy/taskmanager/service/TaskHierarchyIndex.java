@@ -0,0 +1,164 @@
+package casestudy.taskmanager.service;
+
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.repositories.TaskRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory adjacency index of the task collection, used to serve subtree and ancestor reads
+ * without $graphLookup once loaded. It is kept up to date by {@link #put(Task)} whenever a task is
+ * saved on this node and reloaded periodically for the tasks saved by other nodes.
+ *
+ * <p>Reads return the same shape as the repository graph lookups: the requested task first,
+ * followed by the related tasks. Copies are stored and returned.
+ */
+@Component
+@Log4j2
+public class TaskHierarchyIndex {
+  private final TaskRepository taskRepository;
+
+  private volatile Map<Long, Task> taskById = new ConcurrentHashMap<>();
+  private volatile Map<Long, Set<Long>> childIdsByParentId = new ConcurrentHashMap<>();
+  private volatile boolean loaded;
+
+  public TaskHierarchyIndex(final TaskRepository taskRepository) {
+    this.taskRepository = taskRepository;
+  }
+
+  /** Reload the whole task collection into the index. */
+  public synchronized void load() {
+    List<Task> allTasks = taskRepository.findAll();
+
+    Map<Long, Task> loadedById = new ConcurrentHashMap<>(allTasks.size() * 2);
+    Map<Long, Set<Long>> loadedChildIds = new ConcurrentHashMap<>();
+    for (Task task : allTasks) {
+      if (task.getTaskId() != null
+          && loadedById.putIfAbsent(task.getTaskId(), copyOf(task)) == null) {
+        addChild(loadedChildIds, task);
+      }
+    }
+
+    taskById = loadedById;
+    childIdsByParentId = loadedChildIds;
+    loaded = true;
+
+    log.debug("Loaded {} tasks into the task hierarchy index", loadedById.size());
+  }
+
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  /** Add or replace the task, moving it under its new parent when the parent changed. */
+  public synchronized void put(final Task task) {
+    if (!loaded || task.getTaskId() == null) {
+      return;
+    }
+    Task previous = taskById.put(task.getTaskId(), copyOf(task));
+    if (previous != null && isTaskAsParentChild(previous)) {
+      Set<Long> siblingIds = childIdsByParentId.get(previous.getParentId());
+      if (siblingIds != null) {
+        siblingIds.remove(previous.getTaskId());
+      }
+    }
+    addChild(childIdsByParentId, task);
+  }
+
+  public List<Task> findByTaskId(final long taskId) {
+    final Task task = taskById.get(taskId);
+    return task == null ? Collections.emptyList() : Collections.singletonList(copyOf(task));
+  }
+
+  /** @return the task followed by its descendants down to maxDepth levels, empty if not found */
+  public List<Task> findSubtree(final long taskId, final int maxDepth) {
+    final Task root = taskById.get(taskId);
+    if (root == null) {
+      return Collections.emptyList();
+    }
+
+    List<Task> subtree = new ArrayList<>();
+    subtree.add(copyOf(root));
+    Set<Long> visited = new HashSet<>();
+    visited.add(taskId);
+
+    Deque<Long> level = new ArrayDeque<>();
+    level.add(taskId);
+    for (int depth = 0; depth < maxDepth && !level.isEmpty(); depth++) {
+      Deque<Long> nextLevel = new ArrayDeque<>();
+      for (Long parentId : level) {
+        for (Long childId : childIdsByParentId.getOrDefault(parentId, Collections.emptySet())) {
+          Task child = taskById.get(childId);
+          if (child != null && visited.add(childId)) {
+            subtree.add(copyOf(child));
+            nextLevel.add(childId);
+          }
+        }
+      }
+      level = nextLevel;
+    }
+
+    return subtree;
+  }
+
+  /** @return the task followed by its task ancestors up to maxDepth levels, empty if not found */
+  public List<Task> findAncestors(final long taskId, final int maxDepth) {
+    Task current = taskById.get(taskId);
+    if (current == null) {
+      return Collections.emptyList();
+    }
+
+    List<Task> lineage = new ArrayList<>();
+    lineage.add(copyOf(current));
+    for (int depth = 0; depth < maxDepth && isTaskAsParentChild(current); depth++) {
+      current = taskById.get(current.getParentId());
+      if (current == null) {
+        break;
+      }
+      lineage.add(copyOf(current));
+    }
+
+    return lineage;
+  }
+
+  public int size() {
+    return taskById.size();
+  }
+
+  private static void addChild(final Map<Long, Set<Long>> childIdsByParentId, final Task task) {
+    if (isTaskAsParentChild(task)) {
+      childIdsByParentId
+          .computeIfAbsent(task.getParentId(), parentId -> ConcurrentHashMap.newKeySet())
+          .add(task.getTaskId());
+    }
+  }
+
+  // Only tasks that are not in the parent collection have another task as parent
+  private static boolean isTaskAsParentChild(final Task task) {
+    return !Boolean.TRUE.equals(task.getIsParentCollection()) && task.getParentId() != null;
+  }
+
+  private static Task copyOf(final Task task) {
+    Task copy =
+        new Task(
+            task.getTaskId(),
+            task.getParentId(),
+            task.getTask(),
+            task.getStartDate(),
+            task.getEndDate(),
+            task.getPriority(),
+            task.getIsParentCollection());
+    copy.setId(task.getId());
+    return copy;
+  }
+}
@@ -3,38 +3,79 @@ package casestudy.taskmanager.service;
 import casestudy.taskmanager.domains.ParentTask;
 import casestudy.taskmanager.domains.Task;
 import casestudy.taskmanager.exception.DBException;
+import casestudy.taskmanager.exception.ServiceUnavailableException;
 import casestudy.taskmanager.exception.TaskValidationException;
-import casestudy.taskmanager.models.AppKeyValue;
+import casestudy.taskmanager.models.BulkImportResult;
+import casestudy.taskmanager.models.BulkImportRowResult;
+import casestudy.taskmanager.models.CacheStats;
+import casestudy.taskmanager.models.ParentTaskStatsModel;
+import casestudy.taskmanager.models.TaskChangeEvent;
 import casestudy.taskmanager.models.TaskModel;
+import casestudy.taskmanager.models.TaskModelPage;
+import casestudy.taskmanager.models.TaskTreeNode;
 import casestudy.taskmanager.repositories.ParentTaskRepository;
 import casestudy.taskmanager.repositories.TaskManagerRepository;
 import casestudy.taskmanager.repositories.TaskRepository;
-import casestudy.taskmanager.util.MessageKeyUtil;
+import casestudy.taskmanager.util.PageCursorUtil;
+import casestudy.taskmanager.util.PageCursorUtil.PageCursor;
+import casestudy.taskmanager.util.PageCursorUtil.RangeCursor;
 import casestudy.taskmanager.util.SequenceGeneratorUtil;
+import casestudy.taskmanager.util.TaskModelFields;
+import casestudy.taskmanager.util.TaskModelMapper;
+import casestudy.taskmanager.util.TaskTreeUtil;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
-import org.springframework.beans.BeanUtils;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.text.MessageFormat;
 import java.time.LocalDate;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static casestudy.taskmanager.repositories.ParentTaskRepository.DEFAULT_PARENT_TASK;
 
 @Service
 @Log4j2
 public class TaskManagerService {
+  public static final int MAX_PAGE_SIZE = 500;
+  public static final int BULK_BATCH_SIZE = 1000;
+  public static final int MAX_TREE_DEPTH = 50;
+  // Mongo error code of a write rejected by a unique index
+  private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
   private final TaskRepository taskRepository;
   private final ParentTaskRepository parentTaskRepository;
+  private final ParentTaskCache parentTaskCache;
+  private final TaskHierarchyIndex taskHierarchyIndex;
+  private final TaskReadView taskReadView;
+  private final ParentTaskStatsStore parentTaskStatsStore;
+  private final TaskCollectionVersion taskCollectionVersion;
+  private final TaskChangeFeed taskChangeFeed;
   private final TaskManagerRepository taskManagerRepository;
   private final SequenceGeneratorUtil sequenceGeneratorUtil;
   private final MongoTemplate mongoTemplate;
@@ -43,87 +84,346 @@ public class TaskManagerService {
   public TaskManagerService(
       final TaskRepository taskRepository,
       final ParentTaskRepository parentTaskRepository,
+      final ParentTaskCache parentTaskCache,
+      final TaskHierarchyIndex taskHierarchyIndex,
+      final TaskReadView taskReadView,
+      final ParentTaskStatsStore parentTaskStatsStore,
+      final TaskCollectionVersion taskCollectionVersion,
+      final TaskChangeFeed taskChangeFeed,
       final TaskManagerRepository taskManagerRepository,
       final SequenceGeneratorUtil sequenceGeneratorUtil,
       final MongoTemplate mongoTemplate,
       final MessageSource messageSource) {
     this.taskRepository = taskRepository;
     this.parentTaskRepository = parentTaskRepository;
+    this.parentTaskCache = parentTaskCache;
+    this.taskHierarchyIndex = taskHierarchyIndex;
+    this.taskReadView = taskReadView;
+    this.parentTaskStatsStore = parentTaskStatsStore;
+    this.taskCollectionVersion = taskCollectionVersion;
+    this.taskChangeFeed = taskChangeFeed;
     this.taskManagerRepository = taskManagerRepository;
     this.sequenceGeneratorUtil = sequenceGeneratorUtil;
     this.mongoTemplate = mongoTemplate;
     this.messageSource = messageSource;
   }
 
-  public List<TaskModel> getAllTasks() {
+  /** @param fields the comma separated TaskModel fields to return, all of them when blank */
+  public List<TaskModel> getAllTasks(final String fields) {
     log.debug("Processing TaskManagerService getAllTasks");
 
-    List<Task> allTasks = taskRepository.findAll();
-    List<ParentTask> allParentTasks = parentTaskRepository.findAll();
+    final Set<String> fieldSet = parseFields(fields);
+    if (taskReadView.isLoaded()) {
+      return findInReadView(taskModel -> true, fieldSet);
+    }
+    return taskManagerRepository.findTaskModels(new Criteria(), fieldSet);
+  }
+
+  /**
+   * Stream all the tasks joined with their parent task. The stream holds an open database cursor
+   * and must be closed by the caller.
+   */
+  public Stream<TaskModel> streamAllTasks() {
+    log.debug("Processing TaskManagerService streamAllTasks");
 
-    return taskManagerRepository.getTaskModelList(allParentTasks, allTasks);
+    return taskManagerRepository.streamTaskModels(new Criteria());
   }
 
-  public List<TaskModel> getAllParentsAndActiveTasks() {
+  public List<TaskModel> getAllParentsAndActiveTasks(final String fields) {
     log.debug("Processing TaskManagerService getAllParentsAndActiveTasks");
 
-    List<ParentTask> allParentTasks = parentTaskRepository.findAll();
+    final Set<String> fieldSet = parseFields(fields);
+    List<TaskModel> allParentTaskList = getAllParentTaskModels();
+    allParentTaskList.forEach(taskModel -> TaskModelFields.retain(taskModel, fieldSet));
 
-    List<TaskModel> allParentTaskList =
-        allParentTasks
-            .parallelStream()
-            .map(
-                parTsk -> {
-                  TaskModel taskModel = new TaskModel();
-                  BeanUtils.copyProperties(parTsk, taskModel);
-                  taskModel.setIsParentCollection(true);
+    allParentTaskList.addAll(taskManagerRepository.findTaskModels(activeTaskCriteria(), fieldSet));
 
-                  return taskModel;
-                })
-            .collect(Collectors.toList());
+    return allParentTaskList;
+  }
 
-    List<TaskModel> allTaskList = getAllTasks();
+  /** All parent tasks as TaskModels, served from the parent task cache. */
+  public List<TaskModel> getAllParentTaskModels() {
+    List<ParentTask> allParentTasks = parentTaskCache.findAll();
 
-    allParentTaskList.addAll(
-        allTaskList.stream().filter(task -> task.getPriority() >= 0).collect(Collectors.toList()));
+    return allParentTasks
+        .parallelStream()
+        .map(this::toParentTaskModel)
+        .collect(Collectors.toList());
+  }
 
-    return allParentTaskList;
+  public TaskModelPage getAllTasksPage(final String cursor, final int size) {
+    log.debug("Processing TaskManagerService getAllTasksPage");
+
+    validatePageSize(size);
+    final long afterTaskId = cursor == null ? 0 : decodeCursor(cursor).getLastId();
+
+    // Read one row more than the page size to know if there is a next page
+    List<TaskModel> taskList =
+        taskManagerRepository.findTaskModelPage(new Criteria(), afterTaskId, size + 1);
+
+    if (taskList.size() > size) {
+      List<TaskModel> items = new ArrayList<>(taskList.subList(0, size));
+      return new TaskModelPage(
+          items,
+          PageCursorUtil.encode(PageCursorUtil.TASK, items.get(size - 1).getTaskId()));
+    }
+    return new TaskModelPage(taskList, null);
   }
 
-  public List<TaskModel> getTaskByName(final String taskName) {
-    log.debug("Processing TaskManagerService getTaskByName");
+  /**
+   * Page through the parent tasks ordered by parent id, followed by the active tasks ordered by
+   * task id. The cursor keeps the collection the previous page ended in and the last id read.
+   */
+  public TaskModelPage getAllParentsAndActiveTasksPage(final String cursor, final int size) {
+    log.debug("Processing TaskManagerService getAllParentsAndActiveTasksPage");
+
+    validatePageSize(size);
+    final PageCursor pageCursor =
+        cursor == null ? new PageCursor(PageCursorUtil.PARENT_TASK, 0) : decodeCursor(cursor);
+
+    List<TaskModel> items = new ArrayList<>(size);
+    long afterTaskId = pageCursor.getLastId();
+
+    if (PageCursorUtil.PARENT_TASK.equals(pageCursor.getCollection())) {
+      List<ParentTask> parentTaskList =
+          parentTaskRepository.findByParentIdGreaterThanOrderByParentIdAsc(
+              pageCursor.getLastId(), PageRequest.of(0, size + 1));
+
+      if (parentTaskList.size() > size) {
+        parentTaskList.subList(0, size).forEach(parTsk -> items.add(toParentTaskModel(parTsk)));
+        return new TaskModelPage(
+            items,
+            PageCursorUtil.encode(
+                PageCursorUtil.PARENT_TASK, parentTaskList.get(size - 1).getParentId()));
+      }
+
+      parentTaskList.forEach(parTsk -> items.add(toParentTaskModel(parTsk)));
+      afterTaskId = 0;
+    }
 
-    List<Task> taskList = taskRepository.findByTask(taskName);
-    List<ParentTask> allParentTasks = parentTaskRepository.findAll();
+    final int remaining = size - items.size();
+    List<TaskModel> taskList =
+        taskManagerRepository.findTaskModelPage(activeTaskCriteria(), afterTaskId, remaining + 1);
 
-    return taskManagerRepository.getTaskModelList(allParentTasks, taskList);
+    if (taskList.size() <= remaining) {
+      items.addAll(taskList);
+      return new TaskModelPage(items, null);
+    }
+
+    String nextCursor;
+    if (remaining == 0) {
+      // Page is filled with parent tasks, the next page starts with the first active task
+      nextCursor =
+          PageCursorUtil.encode(
+              PageCursorUtil.PARENT_TASK, items.get(items.size() - 1).getParentId());
+    } else {
+      items.addAll(taskList.subList(0, remaining));
+      nextCursor =
+          PageCursorUtil.encode(PageCursorUtil.TASK, items.get(items.size() - 1).getTaskId());
+    }
+    return new TaskModelPage(items, nextCursor);
   }
 
-  public List<TaskModel> getTaskByStartDate(final LocalDate startDate) {
-    log.debug("Processing TaskManagerService getTaskByStartDate({})", startDate);
+  private TaskModel toParentTaskModel(final ParentTask parentTask) {
+    TaskModel taskModel = new TaskModel();
+    TaskModelMapper.copy(parentTask, taskModel);
+    taskModel.setIsParentCollection(true);
 
-    List<Task> taskList = taskRepository.findByStartDate(startDate);
-    List<ParentTask> allParentTasks = parentTaskRepository.findAll();
+    return taskModel;
+  }
 
-    return taskManagerRepository.getTaskModelList(allParentTasks, taskList);
+  // Ended tasks have priority -1, so only tasks with priority >= 0 are active
+  static Criteria activeTaskCriteria() {
+    return Criteria.where("priority").gte(0);
   }
 
-  public List<TaskModel> getTaskByEndDate(final LocalDate endDate) {
-    log.debug("Processing TaskManagerService getTaskByEndDate({})", endDate);
+  private void validatePageSize(final int size) {
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      throw new TaskValidationException(
+          MessageFormat.format(getMessage("error.invalidPageSize"), MAX_PAGE_SIZE));
+    }
+  }
 
-    List<Task> taskList = taskRepository.findByEndDate(endDate);
-    List<ParentTask> allParentTasks = parentTaskRepository.findAll();
+  private PageCursor decodeCursor(final String cursor) {
+    PageCursor pageCursor = PageCursorUtil.decode(cursor);
+    if (pageCursor == null) {
+      throw new TaskValidationException(getMessage("error.invalidCursor"));
+    }
+    return pageCursor;
+  }
+
+  public List<TaskModel> getTaskByName(final String taskName, final String fields) {
+    log.debug("Processing TaskManagerService getTaskByName");
 
-    return taskManagerRepository.getTaskModelList(allParentTasks, taskList);
+    final Set<String> fieldSet = parseFields(fields);
+    if (taskReadView.isLoaded()) {
+      return findInReadView(taskModel -> Objects.equals(taskModel.getTask(), taskName), fieldSet);
+    }
+    return taskManagerRepository.findTaskModels(Criteria.where("task").is(taskName), fieldSet);
   }
 
-  public List<TaskModel> getTaskByPriority(String priority) {
+  public List<TaskModel> getTaskByStartDate(final LocalDate startDate, final String fields) {
+    log.debug("Processing TaskManagerService getTaskByStartDate({})", startDate);
+
+    final Set<String> fieldSet = parseFields(fields);
+    if (taskReadView.isLoaded()) {
+      return findInReadView(
+          taskModel -> Objects.equals(taskModel.getStartDate(), startDate), fieldSet);
+    }
+    return taskManagerRepository.findTaskModels(
+        Criteria.where("start_date").is(startDate), fieldSet);
+  }
+
+  public List<TaskModel> getTaskByEndDate(final LocalDate endDate, final String fields) {
+    log.debug("Processing TaskManagerService getTaskByEndDate({})", endDate);
+
+    final Set<String> fieldSet = parseFields(fields);
+    if (taskReadView.isLoaded()) {
+      return findInReadView(taskModel -> Objects.equals(taskModel.getEndDate(), endDate), fieldSet);
+    }
+    return taskManagerRepository.findTaskModels(Criteria.where("end_date").is(endDate), fieldSet);
+  }
+
+  public List<TaskModel> getTaskByPriority(String priority, final String fields) {
     log.debug("Processing TaskManagerService getTaskByPriority({})", priority);
 
-    List<Task> taskList = taskRepository.findByPriority(Integer.parseInt(priority));
-    List<ParentTask> allParentTasks = parentTaskRepository.findAll();
+    final Integer priorityValue = Integer.parseInt(priority);
+    final Set<String> fieldSet = parseFields(fields);
+    if (taskReadView.isLoaded()) {
+      return findInReadView(taskModel -> priorityValue.equals(taskModel.getPriority()), fieldSet);
+    }
+    return taskManagerRepository.findTaskModels(
+        Criteria.where("priority").is(priorityValue), fieldSet);
+  }
+
+  /** The fields of a fields parameter, rejecting an unknown field with the known ones listed. */
+  public Set<String> parseFields(final String fields) {
+    final Set<String> fieldSet = TaskModelFields.parse(fields);
+    if (fieldSet == null) {
+      throw new TaskValidationException(
+          MessageFormat.format(
+              getMessage("error.invalidFields"), String.join(", ", TaskModelFields.ALL)));
+    }
+    return fieldSet;
+  }
+
+  private List<TaskModel> findInReadView(
+      final Predicate<TaskModel> filter, final Set<String> fieldSet) {
+    List<TaskModel> taskModelList = taskReadView.find(filter);
+    taskModelList.forEach(taskModel -> TaskModelFields.retain(taskModel, fieldSet));
 
-    return taskManagerRepository.getTaskModelList(allParentTasks, taskList);
+    return taskModelList;
+  }
+
+  public TaskModelPage getTaskByPriorityRange(
+      final int from, final int to, final String sort, final String cursor, final int size) {
+    log.debug("Processing TaskManagerService getTaskByPriorityRange({}, {})", from, to);
+
+    if (from > to) {
+      throw new TaskValidationException(getMessage("exception.priorityValidation"));
+    }
+
+    return getTaskModelRangePage(
+        "priority",
+        from,
+        to,
+        sort,
+        cursor,
+        size,
+        TaskModel::getPriority,
+        sortValue -> (int) sortValue);
+  }
+
+  public TaskModelPage getTaskByStartDateRange(
+      final LocalDate from,
+      final LocalDate to,
+      final String sort,
+      final String cursor,
+      final int size) {
+    log.debug("Processing TaskManagerService getTaskByStartDateRange({}, {})", from, to);
+
+    validateDateRange(from, to);
+
+    return getTaskModelRangePage(
+        "startDate",
+        from,
+        to,
+        sort,
+        cursor,
+        size,
+        taskModel -> taskModel.getStartDate().toEpochDay(),
+        LocalDate::ofEpochDay);
+  }
+
+  public TaskModelPage getTaskByEndDateRange(
+      final LocalDate from,
+      final LocalDate to,
+      final String sort,
+      final String cursor,
+      final int size) {
+    log.debug("Processing TaskManagerService getTaskByEndDateRange({}, {})", from, to);
+
+    validateDateRange(from, to);
+
+    return getTaskModelRangePage(
+        "endDate",
+        from,
+        to,
+        sort,
+        cursor,
+        size,
+        taskModel -> taskModel.getEndDate().toEpochDay(),
+        LocalDate::ofEpochDay);
+  }
+
+  /**
+   * Read one page of the tasks whose property is within from and to. The cursor keeps the value
+   * of the property, as a long, and the task id of the last row of the previous page.
+   */
+  private TaskModelPage getTaskModelRangePage(
+      final String property,
+      final Object from,
+      final Object to,
+      final String sort,
+      final String cursor,
+      final int size,
+      final ToLongFunction<TaskModel> sortValueOf,
+      final LongFunction<Object> toPropertyValue) {
+    validatePageSize(size);
+    final Sort.Direction direction =
+        Sort.Direction.fromOptionalString(sort)
+            .orElseThrow(() -> new TaskValidationException(getMessage("error.invalidSortOrder")));
+
+    Object afterValue = null;
+    long afterTaskId = 0;
+    if (cursor != null) {
+      RangeCursor rangeCursor = PageCursorUtil.decodeRange(cursor);
+      if (rangeCursor == null) {
+        throw new TaskValidationException(getMessage("error.invalidCursor"));
+      }
+      afterValue = toPropertyValue.apply(rangeCursor.getSortValue());
+      afterTaskId = rangeCursor.getLastId();
+    }
+
+    // Read one row more than the page size to know if there is a next page
+    List<TaskModel> taskList =
+        taskManagerRepository.findTaskModelRange(
+            property, from, to, direction, afterValue, afterTaskId, size + 1);
+
+    if (taskList.size() > size) {
+      List<TaskModel> items = new ArrayList<>(taskList.subList(0, size));
+      TaskModel lastItem = items.get(size - 1);
+      return new TaskModelPage(
+          items,
+          PageCursorUtil.encodeRange(sortValueOf.applyAsLong(lastItem), lastItem.getTaskId()));
+    }
+    return new TaskModelPage(taskList, null);
+  }
+
+  private void validateDateRange(final LocalDate from, final LocalDate to) {
+    if (from.isAfter(to)) {
+      throw new TaskValidationException(getMessage("error.invalidDateRange"));
+    }
   }
 
   public String addTask(final TaskModel taskModel) {
@@ -147,11 +447,11 @@ public class TaskManagerService {
       List<ParentTask> parentTaskLst = null;
       List<Task> taskList = null;
       if (existingParentTask && existingParentTaskId > 0) {
-        parentTaskLst = parentTaskRepository.findByParentId(existingParentTaskId);
+        parentTaskLst = parentTaskCache.findByParentId(existingParentTaskId);
       } else if (!existingParentTask && existingParentTaskId > 0) {
         taskList = taskRepository.findByTaskId(existingParentTaskId);
       } else {
-        parentTaskLst = parentTaskRepository.findByParentTask(taskModel.getParentTask());
+        parentTaskLst = parentTaskCache.findByParentTask(taskModel.getParentTask());
       }
 
       if (!CollectionUtils.isEmpty(parentTaskLst)) {
@@ -159,40 +459,23 @@ public class TaskManagerService {
 
         log.debug("Found below matching parent task\n{}", parentTask);
 
-        // Find if the input task is already present by matching all fields
-        List<Task> matchingTask =
-            taskManagerRepository.findByAllTaskFields(
+        // An existing task with the same fields is rejected by the unique index on insert
+        Task newTask =
+            saveTask(
                 parentTask.getParentId(),
                 taskModel.getTask(),
                 taskModel.getStartDate(),
                 taskModel.getEndDate(),
                 taskModel.getPriority(),
-                taskModel.getIsParentCollection());
-
-        if (!CollectionUtils.isEmpty(matchingTask)) {
-          log.error("Below task already exists\n{}", matchingTask.get(0));
+                taskModel.getIsParentCollection(),
+                null);
 
-          throw new DBException(getMessage("exception.taskExist"));
+        if (newTask != null && StringUtils.isNotBlank(newTask.getId())) {
+          result = getMessage("success.addTask");
         } else {
-          log.debug("Task not present, proceeding to add task");
-
-          Task newTask =
-              saveTask(
-                  parentTask.getParentId(),
-                  taskModel.getTask(),
-                  taskModel.getStartDate(),
-                  taskModel.getEndDate(),
-                  taskModel.getPriority(),
-                  taskModel.getIsParentCollection(),
-                  null);
-
-          if (newTask != null && StringUtils.isNotBlank(newTask.getId())) {
-            result = getMessage("success.addTask");
-          } else {
-            result = getMessage("exception.addTask");
+          result = getMessage("exception.addTask");
 
-            throw new DBException(result);
-          }
+          throw new DBException(result);
         }
       } else if (!CollectionUtils.isEmpty(taskList)) {
         // Task as parent flow
@@ -200,40 +483,23 @@ public class TaskManagerService {
 
         log.debug("Found below matching task\n{}", parentTask);
 
-        // Find if the input task is already present by matching all fields
-        List<Task> matchingTask =
-            taskManagerRepository.findByAllTaskFields(
+        // An existing task with the same fields is rejected by the unique index on insert
+        Task newTask =
+            saveTask(
                 parentTask.getTaskId(),
                 taskModel.getTask(),
                 taskModel.getStartDate(),
                 taskModel.getEndDate(),
                 taskModel.getPriority(),
-                taskModel.getIsParentCollection());
-
-        if (!CollectionUtils.isEmpty(matchingTask)) {
-          log.error("Below task already exists\n{}", matchingTask.get(0));
+                taskModel.getIsParentCollection(),
+                null);
 
-          throw new DBException(getMessage("exception.taskExist"));
+        if (newTask != null && StringUtils.isNotBlank(newTask.getId())) {
+          result = getMessage("success.addTask");
         } else {
-          log.debug("Task not present, proceeding to add task");
+          result = getMessage("exception.addTask");
 
-          Task newTask =
-              saveTask(
-                  parentTask.getTaskId(),
-                  taskModel.getTask(),
-                  taskModel.getStartDate(),
-                  taskModel.getEndDate(),
-                  taskModel.getPriority(),
-                  taskModel.getIsParentCollection(),
-                  null);
-
-          if (newTask != null && StringUtils.isNotBlank(newTask.getId())) {
-            result = getMessage("success.addTask");
-          } else {
-            result = getMessage("exception.addTask");
-
-            throw new DBException(result);
-          }
+          throw new DBException(result);
         }
       } else {
         log.debug("Parent Task not present, so add Parent Task");
@@ -276,6 +542,230 @@ public class TaskManagerService {
     return result;
   }
 
+  /**
+   * Add the tasks read from the iterator in batches of {@link #BULK_BATCH_SIZE}. Each task is
+   * validated like in {@link #addTask(TaskModel)}, parent tasks are looked up or created once per
+   * distinct name, duplicates within the request and against the database are skipped, and each
+   * batch is inserted with a single unordered bulk write.
+   *
+   * @return the status of every task of the request, in request order
+   */
+  public BulkImportResult addTasks(final Iterator<TaskModel> taskModels) {
+    log.debug("Processing TaskManagerService addTasks");
+
+    final BulkImportContext context = new BulkImportContext();
+    List<TaskModel> batch = new ArrayList<>(BULK_BATCH_SIZE);
+    int firstRow = 0;
+
+    while (taskModels.hasNext()) {
+      batch.add(taskModels.next());
+      if (batch.size() == BULK_BATCH_SIZE) {
+        addTaskBatch(batch, firstRow, context);
+        firstRow += batch.size();
+        batch = new ArrayList<>(BULK_BATCH_SIZE);
+      }
+    }
+    if (!batch.isEmpty()) {
+      addTaskBatch(batch, firstRow, context);
+    }
+
+    context.result.getRows().sort(Comparator.comparingInt(BulkImportRowResult::getRow));
+    log.debug(
+        "Bulk import added {} tasks and rejected {} tasks",
+        context.result.getAdded(),
+        context.result.getRejected());
+
+    return context.result;
+  }
+
+  private void addTaskBatch(
+      final List<TaskModel> batch, final int firstRow, final BulkImportContext context) {
+    // Fetch all the tasks used as parent by the batch in one query
+    Set<Long> taskAsParentIds =
+        batch.stream()
+            .filter(
+                taskModel ->
+                    taskModel != null
+                        && !Boolean.TRUE.equals(taskModel.getIsParentCollection())
+                        && taskModel.getParentId() != null
+                        && taskModel.getParentId() > 0)
+            .map(TaskModel::getParentId)
+            .collect(Collectors.toSet());
+    Map<Long, Task> taskAsParentById = new HashMap<>();
+    if (!taskAsParentIds.isEmpty()) {
+      taskRepository
+          .findByTaskIdIn(taskAsParentIds)
+          .forEach(task -> taskAsParentById.putIfAbsent(task.getTaskId(), task));
+    }
+
+    List<Task> newTasks = new ArrayList<>(batch.size());
+    List<Integer> newTaskRows = new ArrayList<>(batch.size());
+
+    for (int i = 0; i < batch.size(); i++) {
+      final TaskModel taskModel = batch.get(i);
+      final int row = firstRow + i;
+
+      if (taskModel == null
+          || taskModel.getPriority() == null
+          || !validateRequest(taskModel, false)) {
+        context.result.addRow(
+            new BulkImportRowResult(
+                row, BulkImportRowResult.INVALID, null, context.invalidMessage));
+        continue;
+      }
+
+      Task newTask = resolveParent(taskModel, taskAsParentById, context);
+      if (!context.requestTasks.add(taskFieldsKey(newTask))) {
+        context.result.addRow(
+            new BulkImportRowResult(
+                row, BulkImportRowResult.DUPLICATE, null, context.duplicateMessage));
+        continue;
+      }
+
+      newTasks.add(newTask);
+      newTaskRows.add(row);
+    }
+
+    if (newTasks.isEmpty()) {
+      return;
+    }
+
+    // Ids of the batch are reserved with a single sequence update
+    final long firstTaskId =
+        sequenceGeneratorUtil.reserveSequences(
+            Task.SEQUENCE_NAME, newTasks.size(), mongoTemplate);
+    for (int i = 0; i < newTasks.size(); i++) {
+      newTasks.get(i).setTaskId(firstTaskId + i);
+    }
+
+    // Tasks already in the database are rejected by the unique index, not by a pre-query
+    Map<Integer, Integer> errorCodes = new HashMap<>();
+    try {
+      mongoTemplate
+          .bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class)
+          .insert(newTasks)
+          .execute();
+    } catch (BulkOperationException ex) {
+      log.debug(
+          "Bulk insert of {} tasks rejected {} tasks", newTasks.size(), ex.getErrors().size());
+      ex.getErrors().forEach(error -> errorCodes.put(error.getIndex(), error.getCode()));
+    }
+    // A batch rejected as a whole leaves the task lists, and so their ETag, unchanged
+    if (errorCodes.size() < newTasks.size()) {
+      taskCollectionVersion.bump();
+    }
+
+    List<Task> addedTasks = new ArrayList<>();
+    for (int i = 0; i < newTasks.size(); i++) {
+      final Integer errorCode = errorCodes.get(i);
+      if (errorCode == null) {
+        taskHierarchyIndex.put(newTasks.get(i));
+        taskReadView.putTask(newTasks.get(i));
+        taskChangeFeed.publish(
+            TaskChangeEvent.TASK_ADDED, TaskModelMapper.toTaskModel(newTasks.get(i)));
+        addedTasks.add(newTasks.get(i));
+        context.result.addRow(
+            new BulkImportRowResult(
+                newTaskRows.get(i),
+                BulkImportRowResult.ADDED,
+                newTasks.get(i).getTaskId(),
+                context.addedMessage));
+      } else if (errorCode == DUPLICATE_KEY_ERROR_CODE) {
+        context.result.addRow(
+            new BulkImportRowResult(
+                newTaskRows.get(i),
+                BulkImportRowResult.DUPLICATE,
+                null,
+                context.duplicateMessage));
+      } else {
+        context.result.addRow(
+            new BulkImportRowResult(
+                newTaskRows.get(i), BulkImportRowResult.FAILED, null, context.failedMessage));
+      }
+    }
+    parentTaskStatsStore.recordAdded(addedTasks);
+  }
+
+  /**
+   * Build the new Task with the parent resolved the same way as {@link #addTask(TaskModel)}, by
+   * parent id when given, else by parent task name. Missing parent tasks are created once per
+   * distinct name for the whole import.
+   */
+  private Task resolveParent(
+      final TaskModel taskModel,
+      final Map<Long, Task> taskAsParentById,
+      final BulkImportContext context) {
+    // Check if the parentTask is empty then set parentTask as NA
+    if (StringUtils.isBlank(taskModel.getParentTask())) {
+      taskModel.setParentTask(DEFAULT_PARENT_TASK);
+      taskModel.setIsParentCollection(true);
+    }
+
+    final boolean existingParentTask =
+        taskModel.getIsParentCollection() == null ? false : taskModel.getIsParentCollection();
+    final long existingParentTaskId = taskModel.getParentId() == null ? 0 : taskModel.getParentId();
+
+    Long parentId = null;
+    boolean isParentCollection = true;
+    if (existingParentTask && existingParentTaskId > 0) {
+      List<ParentTask> parentTaskLst = parentTaskCache.findByParentId(existingParentTaskId);
+      if (!CollectionUtils.isEmpty(parentTaskLst)) {
+        parentId = parentTaskLst.get(0).getParentId();
+      }
+    } else if (!existingParentTask && existingParentTaskId > 0) {
+      Task taskAsParent = taskAsParentById.get(existingParentTaskId);
+      if (taskAsParent != null) {
+        parentId = taskAsParent.getTaskId();
+        isParentCollection = false;
+      }
+    }
+
+    if (parentId == null) {
+      ParentTask parentTask =
+          context.parentTaskByName.computeIfAbsent(
+              taskModel.getParentTask(),
+              name -> {
+                List<ParentTask> parentTaskLst = parentTaskCache.findByParentTask(name);
+                return CollectionUtils.isEmpty(parentTaskLst)
+                    ? saveParentTask(name, null)
+                    : parentTaskLst.get(0);
+              });
+      parentId = parentTask.getParentId();
+    }
+
+    return new Task(
+        null,
+        parentId,
+        taskModel.getTask(),
+        taskModel.getStartDate(),
+        taskModel.getEndDate(),
+        taskModel.getPriority(),
+        isParentCollection);
+  }
+
+  // Same fields as matched by findByAllTaskFields to detect an existing task
+  private List<Object> taskFieldsKey(final Task task) {
+    return Arrays.asList(
+        task.getParentId(),
+        task.getTask(),
+        task.getStartDate(),
+        task.getEndDate(),
+        task.getPriority(),
+        task.getIsParentCollection());
+  }
+
+  /** State kept across the batches of one bulk import. */
+  private class BulkImportContext {
+    private final BulkImportResult result = new BulkImportResult();
+    private final Map<String, ParentTask> parentTaskByName = new HashMap<>();
+    private final Set<List<Object>> requestTasks = new HashSet<>();
+
+    private final String addedMessage = getMessage("success.addTask");
+    private final String duplicateMessage = getMessage("exception.taskExist");
+    private final String invalidMessage = getMessage("error.invalidRequest");
+    private final String failedMessage = getMessage("exception.addTask");
+  }
+
   public String updateTask(final TaskModel taskModel) {
     String result;
     boolean recordUpdated = false;
@@ -298,11 +788,11 @@ public class TaskManagerService {
       List<ParentTask> parentTaskLst = null;
       List<Task> taskAsParentList = null;
       if (hasParentInParent && existingParentTaskId > 0) {
-        parentTaskLst = parentTaskRepository.findByParentId(existingParentTaskId);
+        parentTaskLst = parentTaskCache.findByParentId(existingParentTaskId);
       } else if (!hasParentInParent && existingParentTaskId > 0) {
         taskAsParentList = taskRepository.findByTaskId(existingParentTaskId);
       } else {
-        parentTaskLst = parentTaskRepository.findByParentTask(taskModel.getParentTask());
+        parentTaskLst = parentTaskCache.findByParentTask(taskModel.getParentTask());
       }
 
       if (!CollectionUtils.isEmpty(parentTaskLst) || !CollectionUtils.isEmpty(taskAsParentList)) {
@@ -441,9 +931,20 @@ public class TaskManagerService {
       Task taskObj) {
 
     final boolean isExistingRecord = (taskObj != null);
+    Task previousTask = null;
 
     // Prepare the new ParentTask object to be inserted in DB
     if (isExistingRecord) {
+      // Keep the counted fields of the stored task to move the parent task stats
+      previousTask =
+          new Task(
+              taskObj.getTaskId(),
+              taskObj.getParentId(),
+              taskObj.getTask(),
+              taskObj.getStartDate(),
+              taskObj.getEndDate(),
+              taskObj.getPriority(),
+              taskObj.getIsParentCollection());
       taskObj.setTask(task);
       taskObj.setStartDate(startDate);
       taskObj.setEndDate(endDate);
@@ -465,9 +966,24 @@ public class TaskManagerService {
     log.debug(
         "{} below Task to task collection\n{}", isExistingRecord ? "Updating" : "Adding", taskObj);
 
-    Task taskPostSave = taskRepository.save(taskObj);
+    Task taskPostSave;
+    try {
+      // New tasks are inserted, so a duplicate of an existing task fails on the unique index
+      taskPostSave =
+          isExistingRecord ? taskRepository.save(taskObj) : taskRepository.insert(taskObj);
+    } catch (DuplicateKeyException ex) {
+      log.error("Below task already exists\n{}", taskObj);
+
+      throw new DBException(getMessage("exception.taskExist"));
+    }
     if (taskPostSave != null && StringUtils.isNotBlank(taskPostSave.getId())) {
       log.debug("Successfully {} Task to DB", isExistingRecord ? "updated" : "added");
+      taskHierarchyIndex.put(taskPostSave);
+      taskReadView.putTask(taskPostSave);
+      parentTaskStatsStore.recordSave(previousTask, taskPostSave);
+      taskCollectionVersion.bump();
+      taskChangeFeed.publish(
+          taskChangeType(previousTask, taskPostSave), TaskModelMapper.toTaskModel(taskPostSave));
     } else {
       final String errMsg = getMessage("exception.saveTask");
       log.error(errMsg);
@@ -478,6 +994,17 @@ public class TaskManagerService {
     return taskPostSave;
   }
 
+  // Ending a task sets its priority to -1
+  private static String taskChangeType(final Task previousTask, final Task savedTask) {
+    if (previousTask == null) {
+      return TaskChangeEvent.TASK_ADDED;
+    }
+    final boolean ended =
+        Integer.valueOf(-1).equals(savedTask.getPriority())
+            && !Integer.valueOf(-1).equals(previousTask.getPriority());
+    return ended ? TaskChangeEvent.TASK_ENDED : TaskChangeEvent.TASK_UPDATED;
+  }
+
   private ParentTask saveParentTask(final String parentTask, ParentTask parentTaskObj) {
     final boolean isExtingRecord = (parentTaskObj != null);
 
@@ -499,6 +1026,12 @@ public class TaskManagerService {
 
     if (parentTaskPostSave != null && StringUtils.isNotBlank(parentTaskPostSave.getId())) {
       log.debug("Successfully {} ParentTask to DB", isExtingRecord ? "updated" : "added");
+      parentTaskCache.put(parentTaskPostSave);
+      taskReadView.putParentTask(parentTaskPostSave);
+      taskCollectionVersion.bump();
+      taskChangeFeed.publish(
+          isExtingRecord ? TaskChangeEvent.PARENT_TASK_UPDATED : TaskChangeEvent.PARENT_TASK_ADDED,
+          toParentTaskModel(parentTaskPostSave));
     } else {
       final String errMsg = getMessage("exception.saveParentTask");
       log.error(errMsg);
@@ -510,85 +1043,28 @@ public class TaskManagerService {
   }
 
   public List<TaskModel> searchTasks(TaskModel taskModel) {
-    List<TaskModel> allTasks = getAllTasks();
-
-    return Optional.ofNullable(allTasks).orElseGet(Collections::emptyList).stream()
-        .filter(
-            task -> {
-              boolean matched;
-              if (StringUtils.isNotBlank(taskModel.getTask())) {
-                matched =
-                    StringUtils.equalsAnyIgnoreCase(taskModel.getTask().trim(), task.getTask());
-              } else {
-                // skip filter
-                matched = true;
-              }
+    log.debug("Processing TaskManagerService searchTasks");
 
-              return matched;
-            })
-        .filter(
-            task -> {
-              boolean matched;
-              if (StringUtils.isNotBlank(taskModel.getParentTask())) {
-                matched =
-                    StringUtils.equalsAnyIgnoreCase(
-                        taskModel.getParentTask().trim(), task.getParentTask());
-              } else {
-                // skip filter
-                matched = true;
-              }
-
-              return matched;
-            })
-        .filter(
-            task -> {
-              boolean matched;
+    validateSearch(taskModel);
 
-              if (taskModel.getPriorityFrom() == null) {
-                taskModel.setPriorityFrom(0);
-              }
-              if (taskModel.getPriorityTo() == null) {
-                taskModel.setPriorityTo(0);
-              }
-              if (taskModel.getPriorityFrom() > 0 && taskModel.getPriorityTo() > 0) {
-                if (taskModel.getPriorityFrom() > taskModel.getPriorityTo()) {
-                  throw new TaskValidationException(getMessage("exception.priorityValidation"));
-                }
-                matched =
-                    task.getPriority() >= taskModel.getPriorityFrom()
-                        && task.getPriority() <= taskModel.getPriorityTo();
-              } else {
-                // skip filter
-                matched = true;
-              }
-
-              return matched;
-            })
-        .filter(
-            task -> {
-              boolean matched;
-              if (taskModel.getStartDate() != null) {
-                matched = task.getStartDate().isEqual(taskModel.getStartDate());
-              } else {
-                // skip filter
-                matched = true;
-              }
-
-              return matched;
-            })
-        .filter(
-            task -> {
-              boolean matched;
-              if (taskModel.getEndDate() != null) {
-                matched = task.getEndDate().isEqual(taskModel.getEndDate());
-              } else {
-                // skip filter
-                matched = true;
-              }
+    // The word search ranks by relevance and returns the best matches only
+    if (StringUtils.isNotBlank(taskModel.getSearchText())) {
+      return taskManagerRepository.searchTaskModelsByText(taskModel, MAX_PAGE_SIZE);
+    }
+    if (taskReadView.isLoaded()) {
+      return taskReadView.find(TaskReadView.searchFilter(taskModel));
+    }
+    return taskManagerRepository.searchTaskModels(taskModel);
+  }
 
-              return matched;
-            })
-        .collect(Collectors.toList());
+  public void validateSearch(final TaskModel taskModel) {
+    if (taskModel.getPriorityFrom() != null
+        && taskModel.getPriorityTo() != null
+        && taskModel.getPriorityFrom() > 0
+        && taskModel.getPriorityTo() > 0
+        && taskModel.getPriorityFrom() > taskModel.getPriorityTo()) {
+      throw new TaskValidationException(getMessage("exception.priorityValidation"));
+    }
   }
 
   public String endTask(String taskId) {
@@ -600,7 +1076,7 @@ public class TaskManagerService {
         TaskModel taskModel = new TaskModel();
         Task task = taskList.get(0);
         if (task.getIsParentCollection()) {
-          List<ParentTask> parentTaskLst = parentTaskRepository.findByParentId(task.getParentId());
+          List<ParentTask> parentTaskLst = parentTaskCache.findByParentId(task.getParentId());
           if (!CollectionUtils.isEmpty(parentTaskLst)) {
             ParentTask parentTask = parentTaskLst.get(0);
             taskModel.setParentTask(parentTask.getParentTask());
@@ -617,7 +1093,7 @@ public class TaskManagerService {
           }
         }
 
-        BeanUtils.copyProperties(task, taskModel);
+        TaskModelMapper.copy(task, taskModel);
         taskModel.setPriority(-1);
         result = updateTask(taskModel);
       } else {
@@ -630,9 +1106,107 @@ public class TaskManagerService {
     return result;
   }
 
+  /**
+   * Read the task with all the tasks below it, down to maxDepth levels, as a tree. Served from the
+   * task hierarchy index when it is loaded, else with a single $graphLookup.
+   */
+  public TaskTreeNode getTaskSubtree(final String taskId, final int maxDepth) {
+    log.debug("Processing TaskManagerService getTaskSubtree({}, {})", taskId, maxDepth);
+
+    final long rootTaskId = parseTaskId(taskId);
+    validateTreeDepth(maxDepth);
+
+    List<Task> subtree =
+        taskHierarchyIndex.isLoaded()
+            ? taskHierarchyIndex.findSubtree(rootTaskId, maxDepth)
+            : taskManagerRepository.findSubtree(rootTaskId, maxDepth);
+    if (subtree.isEmpty()) {
+      throw new TaskValidationException(getMessage("exception.taskNotFound"));
+    }
+
+    final Task root = subtree.get(0);
+    return TaskTreeUtil.buildTree(
+        root, findParentTaskName(root), subtree.subList(1, subtree.size()));
+  }
+
+  /**
+   * Read the tasks above the task through its task-as-parent links, up to maxDepth levels, nearest
+   * first. The walk ends at the first task whose parent is a parent task.
+   */
+  public List<TaskModel> getTaskAncestors(final String taskId, final int maxDepth) {
+    log.debug("Processing TaskManagerService getTaskAncestors({}, {})", taskId, maxDepth);
+
+    final long childTaskId = parseTaskId(taskId);
+    validateTreeDepth(maxDepth);
+
+    List<Task> lineage =
+        taskHierarchyIndex.isLoaded()
+            ? taskHierarchyIndex.findAncestors(childTaskId, maxDepth)
+            : taskManagerRepository.findAncestors(childTaskId, maxDepth);
+    if (lineage.isEmpty()) {
+      throw new TaskValidationException(getMessage("exception.taskNotFound"));
+    }
+
+    List<Task> ancestors =
+        TaskTreeUtil.ancestorChain(
+            lineage.get(0), lineage.subList(1, lineage.size()), maxDepth);
+
+    List<TaskModel> ancestorList = new ArrayList<>(ancestors.size());
+    for (int i = 0; i < ancestors.size(); i++) {
+      final Task ancestor = ancestors.get(i);
+      final String parentTask =
+          i + 1 < ancestors.size()
+              ? ancestors.get(i + 1).getTask()
+              : findParentTaskName(ancestor);
+      ancestorList.add(TaskTreeUtil.toTaskModel(ancestor, parentTask));
+    }
+
+    return ancestorList;
+  }
+
+  private long parseTaskId(final String taskId) {
+    if (!NumberUtils.isDigits(taskId)) {
+      throw new TaskValidationException(getMessage("error.invalidTaskId"));
+    }
+    return Long.parseLong(taskId);
+  }
+
+  private void validateTreeDepth(final int maxDepth) {
+    if (maxDepth < 1 || maxDepth > MAX_TREE_DEPTH) {
+      throw new TaskValidationException(
+          MessageFormat.format(getMessage("error.invalidTreeDepth"), MAX_TREE_DEPTH));
+    }
+  }
+
+  // Name of the parent of the task, which is either a parent task or another task
+  private String findParentTaskName(final Task task) {
+    if (task.getParentId() == null) {
+      return null;
+    }
+    if (Boolean.TRUE.equals(task.getIsParentCollection())) {
+      List<ParentTask> parentTaskList = parentTaskCache.findByParentId(task.getParentId());
+      return parentTaskList.isEmpty() ? null : parentTaskList.get(0).getParentTask();
+    }
+
+    List<Task> parentTaskList =
+        taskHierarchyIndex.isLoaded()
+            ? taskHierarchyIndex.findByTaskId(task.getParentId())
+            : taskRepository.findByTaskId(task.getParentId());
+    return parentTaskList.isEmpty() ? null : parentTaskList.get(0).getTask();
+  }
+
   public TaskModel getTaskById(String taskId) {
     TaskModel result = new TaskModel();
-    if (NumberUtils.isCreatable(taskId)) {
+    if (NumberUtils.isCreatable(taskId) && taskReadView.isLoaded()) {
+      result =
+          taskReadView
+              .findByTaskId(Long.parseLong(taskId))
+              .orElseThrow(
+                  () -> new TaskValidationException(getMessage("exception.taskNotFound")));
+      if (result.getParentTask() == null) {
+        throw new DBException(getMessage("exception.parentTaskNotFound"));
+      }
+    } else if (NumberUtils.isCreatable(taskId)) {
       List<Task> taskList = taskRepository.findByTaskId(Long.parseLong(taskId));
 
       if (!CollectionUtils.isEmpty(taskList)) {
@@ -642,18 +1216,18 @@ public class TaskManagerService {
         List<Task> taskParentLst = null;
 
         if (isParentCollection) {
-          parentTaskList = parentTaskRepository.findByParentId(matchedTask.getParentId());
+          parentTaskList = parentTaskCache.findByParentId(matchedTask.getParentId());
         } else {
           taskParentLst = taskRepository.findByTaskId(matchedTask.getParentId());
         }
 
         if (!CollectionUtils.isEmpty(parentTaskList) && isParentCollection) {
           ParentTask matchedParentTask = parentTaskList.get(0);
-          BeanUtils.copyProperties(matchedTask, result);
-          BeanUtils.copyProperties(matchedParentTask, result);
+          TaskModelMapper.copy(matchedTask, result);
+          TaskModelMapper.copy(matchedParentTask, result);
         } else if (!CollectionUtils.isEmpty(taskParentLst) && !isParentCollection) {
           Task matchedParentTask = taskParentLst.get(0);
-          BeanUtils.copyProperties(matchedTask, result);
+          TaskModelMapper.copy(matchedTask, result);
           result.setParentTask(matchedParentTask.getTask());
         } else {
           throw new DBException(getMessage("exception.parentTaskNotFound"));
@@ -673,20 +1247,56 @@ public class TaskManagerService {
     return messageSource.getMessage(msgKey, null, LocaleContextHolder.getLocale());
   }
 
-  public List<AppKeyValue> getI18nMessages() {
-    List<String> keys = MessageKeyUtil.getAppKeys();
+  /**
+   * Follow the task and parent task changes as Server-Sent Events, refused with 503 and a
+   * Retry-After once the change feed has its maximum number of subscribers.
+   */
+  public SseEmitter subscribeToTaskChanges() {
+    log.debug("Processing TaskManagerService subscribeToTaskChanges");
+
+    return taskChangeFeed
+        .subscribe()
+        .orElseThrow(
+            () ->
+                new ServiceUnavailableException(
+                    getMessage("exception.changeFeedFull"), taskChangeFeed.getRetryAfterSeconds()));
+  }
 
-    List<AppKeyValue> appMessageList =
-        keys.stream()
-            .map(
-                key -> {
-                  final String value = getMessage(key);
-                  AppKeyValue keyValuePair = new AppKeyValue(key, value);
+  /** Strong ETag of the full task lists, changed by every task or parent task write. */
+  public String getTaskCollectionETag() {
+    // The read view may lag the writes of other nodes, its ETag follows what it serves
+    if (taskReadView.isLoaded()) {
+      return taskCollectionVersion.getReadViewETag();
+    }
+    return taskCollectionVersion.getETag();
+  }
 
-                  return keyValuePair;
-                })
-            .collect(Collectors.toList());
+  public CacheStats getParentTaskCacheStats() {
+    return parentTaskCache.getStats();
+  }
 
-    return appMessageList;
+  /** Task counters of every parent task, read from the precomputed parent task stats. */
+  public List<ParentTaskStatsModel> getParentTaskStats() {
+    log.debug("Processing TaskManagerService getParentTaskStats");
+
+    final Map<Long, String> parentTaskNames =
+        parentTaskCache.findAll().stream()
+            .collect(
+                Collectors.toMap(
+                    ParentTask::getParentId, ParentTask::getParentTask, (first, second) -> first));
+
+    return parentTaskStatsStore.findAll().stream()
+        .map(
+            stats ->
+                new ParentTaskStatsModel(
+                    stats.getParentId(),
+                    parentTaskNames.get(stats.getParentId()),
+                    stats.getActiveCount(),
+                    stats.getEndedCount(),
+                    stats.getActiveCount() > 0
+                        ? (double) stats.getActivePrioritySum() / stats.getActiveCount()
+                        : null))
+        .sorted(Comparator.comparing(ParentTaskStatsModel::getParentId))
+        .collect(Collectors.toList());
   }
 }
@@ -0,0 +1,276 @@
+package casestudy.taskmanager.service;
+
+import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskModel;
+import casestudy.taskmanager.repositories.ParentTaskRepository;
+import casestudy.taskmanager.repositories.TaskRepository;
+import casestudy.taskmanager.util.TaskModelMapper;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory replica of the task and parent_task collections, holding every task as a TaskModel
+ * with its parent name already joined, so the task reads are answered without any I/O once
+ * loaded.
+ *
+ * <p>It is loaded with one scan of each collection and kept current by {@link #putTask(Task)} and
+ * {@link #putParentTask(ParentTask)}, called for the writes of this node and, when the database
+ * supports change streams, for the changes read from them. Renaming a task or a parent task
+ * updates the joined name of its children. Tasks are kept and returned in task id order, and
+ * copies are returned so callers cannot change the replica.
+ */
+@Component
+@Log4j2
+public class TaskReadView {
+  private final TaskRepository taskRepository;
+  private final ParentTaskRepository parentTaskRepository;
+
+  private volatile Replica replica = new Replica();
+  private volatile boolean loaded;
+
+  public TaskReadView(
+      final TaskRepository taskRepository, final ParentTaskRepository parentTaskRepository) {
+    this.taskRepository = taskRepository;
+    this.parentTaskRepository = parentTaskRepository;
+  }
+
+  /** Reload both collections, readers keep using the previous replica until it is replaced. */
+  public synchronized void load() {
+    final List<ParentTask> allParentTasks = parentTaskRepository.findAll();
+    final List<Task> allTasks = taskRepository.findAll();
+
+    Replica loadedReplica = new Replica();
+    allParentTasks.stream()
+        .filter(parentTask -> parentTask.getParentId() != null)
+        .forEach(loadedReplica::putParentTask);
+    allTasks.stream()
+        .filter(task -> task.getTaskId() != null)
+        .forEach(task -> loadedReplica.putTask(task, false));
+    // Join once all the tasks are in, a task can be read before its task parent
+    loadedReplica.taskById.keySet().forEach(loadedReplica::join);
+
+    replica = loadedReplica;
+    loaded = true;
+
+    log.debug(
+        "Loaded {} tasks and {} parent tasks into the task read view",
+        loadedReplica.taskById.size(),
+        loadedReplica.parentTaskNameById.size());
+  }
+
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  /** Add or replace the task, the joined name of its task children follows a rename. */
+  public synchronized void putTask(final Task task) {
+    if (loaded && task.getTaskId() != null) {
+      replica.putTask(task, true);
+    }
+  }
+
+  /** Add or replace the parent task, the joined name of its tasks follows a rename. */
+  public synchronized void putParentTask(final ParentTask parentTask) {
+    if (loaded && parentTask.getParentId() != null) {
+      replica.putParentTask(parentTask);
+    }
+  }
+
+  /** Remove the task with the Mongo _id of a delete read from the change stream. */
+  public synchronized void removeTask(final String documentId) {
+    if (loaded) {
+      replica.removeTask(documentId);
+    }
+  }
+
+  /** Remove the parent task with the Mongo _id of a delete read from the change stream. */
+  public synchronized void removeParentTask(final String documentId) {
+    if (loaded) {
+      replica.removeParentTask(documentId);
+    }
+  }
+
+  public List<TaskModel> findAll() {
+    return find(taskModel -> true);
+  }
+
+  public List<TaskModel> find(final Predicate<TaskModel> filter) {
+    return replica.taskModelById.values().stream()
+        .filter(filter)
+        .map(TaskReadView::copyOf)
+        .collect(Collectors.toList());
+  }
+
+  public Optional<TaskModel> findByTaskId(final long taskId) {
+    return Optional.ofNullable(replica.taskModelById.get(taskId)).map(TaskReadView::copyOf);
+  }
+
+  /**
+   * Match the search fields of the TaskModel the same way the search aggregation does: task and
+   * parent task names ignoring case, the priority range only when both bounds are greater than 0.
+   */
+  public static Predicate<TaskModel> searchFilter(final TaskModel search) {
+    final String task = StringUtils.trimToNull(search.getTask());
+    final String parentTask = StringUtils.trimToNull(search.getParentTask());
+    final int priorityFrom = search.getPriorityFrom() == null ? 0 : search.getPriorityFrom();
+    final int priorityTo = search.getPriorityTo() == null ? 0 : search.getPriorityTo();
+    final boolean hasPriorityRange = priorityFrom > 0 && priorityTo > 0;
+
+    return taskModel ->
+        (task == null || task.equalsIgnoreCase(taskModel.getTask()))
+            && (parentTask == null || parentTask.equalsIgnoreCase(taskModel.getParentTask()))
+            && (!hasPriorityRange
+                || (taskModel.getPriority() != null
+                    && taskModel.getPriority() >= priorityFrom
+                    && taskModel.getPriority() <= priorityTo))
+            && (search.getStartDate() == null
+                || search.getStartDate().equals(taskModel.getStartDate()))
+            && (search.getEndDate() == null || search.getEndDate().equals(taskModel.getEndDate()));
+  }
+
+  private static TaskModel copyOf(final TaskModel taskModel) {
+    TaskModel copy = new TaskModel();
+    copy.setTaskId(taskModel.getTaskId());
+    copy.setTask(taskModel.getTask());
+    copy.setPriority(taskModel.getPriority());
+    copy.setParentId(taskModel.getParentId());
+    copy.setParentTask(taskModel.getParentTask());
+    copy.setStartDate(taskModel.getStartDate());
+    copy.setEndDate(taskModel.getEndDate());
+    copy.setIsParentCollection(taskModel.getIsParentCollection());
+
+    return copy;
+  }
+
+  /** The collections and the indexes needed to keep the joined names current. */
+  private static class Replica {
+    private final Map<Long, Task> taskById = new ConcurrentHashMap<>();
+    private final Map<Long, String> parentTaskNameById = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Long, TaskModel> taskModelById =
+        new ConcurrentSkipListMap<>();
+
+    // Children by parent, apart for tasks under a parent task and tasks under another task
+    private final Map<Long, Set<Long>> taskIdsByParentTaskId = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> taskIdsByTaskParentId = new ConcurrentHashMap<>();
+
+    // Change stream deletes only carry the Mongo _id of the document
+    private final Map<String, Long> taskIdByDocumentId = new ConcurrentHashMap<>();
+    private final Map<String, Long> parentIdByDocumentId = new ConcurrentHashMap<>();
+
+    private void putTask(final Task task, final boolean joinNow) {
+      final Task stored = copyOfTask(task);
+      final Task previous = taskById.put(stored.getTaskId(), stored);
+      if (previous != null) {
+        childIds(previous).ifPresent(siblingIds -> siblingIds.remove(previous.getTaskId()));
+      }
+      if (stored.getParentId() != null) {
+        (Boolean.TRUE.equals(stored.getIsParentCollection())
+                ? taskIdsByParentTaskId
+                : taskIdsByTaskParentId)
+            .computeIfAbsent(stored.getParentId(), parentId -> ConcurrentHashMap.newKeySet())
+            .add(stored.getTaskId());
+      }
+      if (stored.getId() != null) {
+        taskIdByDocumentId.put(stored.getId(), stored.getTaskId());
+      }
+
+      if (joinNow) {
+        join(stored.getTaskId());
+        if (previous == null || !Objects.equals(previous.getTask(), stored.getTask())) {
+          taskIdsByTaskParentId
+              .getOrDefault(stored.getTaskId(), Collections.emptySet())
+              .forEach(this::join);
+        }
+      }
+    }
+
+    private void putParentTask(final ParentTask parentTask) {
+      final String previousName =
+          parentTaskNameById.put(parentTask.getParentId(), parentTask.getParentTask());
+      if (parentTask.getId() != null) {
+        parentIdByDocumentId.put(parentTask.getId(), parentTask.getParentId());
+      }
+      if (!Objects.equals(previousName, parentTask.getParentTask())) {
+        taskIdsByParentTaskId
+            .getOrDefault(parentTask.getParentId(), Collections.emptySet())
+            .forEach(this::join);
+      }
+    }
+
+    private void removeTask(final String documentId) {
+      final Long taskId = taskIdByDocumentId.remove(documentId);
+      final Task removed = taskId == null ? null : taskById.remove(taskId);
+      if (removed != null) {
+        childIds(removed).ifPresent(siblingIds -> siblingIds.remove(taskId));
+        taskModelById.remove(taskId);
+        taskIdsByTaskParentId.getOrDefault(taskId, Collections.emptySet()).forEach(this::join);
+      }
+    }
+
+    private void removeParentTask(final String documentId) {
+      final Long parentId = parentIdByDocumentId.remove(documentId);
+      if (parentId != null && parentTaskNameById.remove(parentId) != null) {
+        taskIdsByParentTaskId.getOrDefault(parentId, Collections.emptySet()).forEach(this::join);
+      }
+    }
+
+    private Optional<Set<Long>> childIds(final Task task) {
+      if (task.getParentId() == null) {
+        return Optional.empty();
+      }
+      return Optional.ofNullable(
+          (Boolean.TRUE.equals(task.getIsParentCollection())
+                  ? taskIdsByParentTaskId
+                  : taskIdsByTaskParentId)
+              .get(task.getParentId()));
+    }
+
+    // Rebuild the TaskModel of the task with the current name of its parent
+    private void join(final Long taskId) {
+      final Task task = taskById.get(taskId);
+      if (task == null) {
+        return;
+      }
+
+      TaskModel taskModel = TaskModelMapper.toTaskModel(task);
+      if (task.getParentId() != null) {
+        if (Boolean.TRUE.equals(task.getIsParentCollection())) {
+          taskModel.setParentTask(parentTaskNameById.get(task.getParentId()));
+        } else if (Boolean.FALSE.equals(task.getIsParentCollection())) {
+          final Task parent = taskById.get(task.getParentId());
+          taskModel.setParentTask(parent == null ? null : parent.getTask());
+        }
+      }
+      taskModelById.put(taskId, taskModel);
+    }
+
+    private static Task copyOfTask(final Task task) {
+      Task copy =
+          new Task(
+              task.getTaskId(),
+              task.getParentId(),
+              task.getTask(),
+              task.getStartDate(),
+              task.getEndDate(),
+              task.getPriority(),
+              task.getIsParentCollection());
+      copy.setId(task.getId());
+
+      return copy;
+    }
+  }
+}
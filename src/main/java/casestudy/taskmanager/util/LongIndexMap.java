@@ -0,0 +1,108 @@
+package casestudy.taskmanager.util;
+
+/**
+ * Open addressing hash map keyed by primitive long values, used to index tasks and parent tasks by
+ * their numeric ids without boxing every key into a {@link Long}.
+ *
+ * <p>Null values are not supported, an empty slot is identified by a null value. The map is not
+ * thread safe, it is meant to be built once and then only read.
+ */
+public class LongIndexMap<V> {
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private Object[] values;
+  private int mask;
+  private int size;
+
+  public LongIndexMap(final int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    // Keep the load factor at or below 0.5
+    while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+      capacity <<= 1;
+    }
+    allocate(capacity);
+  }
+
+  /**
+   * Store the value for the key only if the key is not already mapped, so the first inserted value
+   * for a key always wins.
+   *
+   * @return the value already mapped to the key, or null if the value was inserted
+   */
+  @SuppressWarnings("unchecked")
+  public V putIfAbsent(final long key, final V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Null values are not supported");
+    }
+
+    int slot = slot(key);
+    while (values[slot] != null) {
+      if (keys[slot] == key) {
+        return (V) values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size * 2 > values.length) {
+      rehash();
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get(final long key) {
+    int slot = slot(key);
+    while (values[slot] != null) {
+      if (keys[slot] == key) {
+        return (V) values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  public boolean containsKey(final long key) {
+    return get(key) != null;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private int slot(final long key) {
+    // Murmur3 finalizer to spread sequential ids across the table
+    long h = key;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return (int) h & mask;
+  }
+
+  private void allocate(final int capacity) {
+    keys = new long[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+  }
+
+  private void rehash() {
+    final long[] oldKeys = keys;
+    final Object[] oldValues = values;
+    allocate(oldValues.length << 1);
+
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldValues[i] != null) {
+        int slot = slot(oldKeys[i]);
+        while (values[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+}
@@ -17,10 +17,17 @@ public class MessageKeyUtil {
         "exception.parentTaskNotFoundById",
         "exception.parentTaskNotFound",
         "exception.priorityValidation",
+        "exception.changeFeedFull",
         "error.invalidRequest",
         "error.taskNotFound",
         "error.invalidTaskId",
         "error.ignoreUpdate",
+        "error.invalidCursor",
+        "error.invalidPageSize",
+        "error.invalidDateRange",
+        "error.invalidSortOrder",
+        "error.invalidTreeDepth",
+        "error.invalidFields",
         "success.addTask",
         "success.updateTask",
         "label.task",
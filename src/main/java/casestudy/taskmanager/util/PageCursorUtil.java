@@ -0,0 +1,89 @@
+package casestudy.taskmanager.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the position of a keyset page, the collection the page ended in and the last id read
+ * from it, into an opaque url safe token. Pages of a range query also keep the value of the range
+ * field of the last row read, as rows are ordered by that value first.
+ */
+public class PageCursorUtil {
+  public static final String PARENT_TASK = "P";
+  public static final String TASK = "T";
+  public static final String RANGE = "R";
+
+  private static final String SEPARATOR = ":";
+
+  private PageCursorUtil() {}
+
+  public static String encode(final String collection, final long lastId) {
+    return toToken(collection + SEPARATOR + lastId);
+  }
+
+  public static String encodeRange(final long sortValue, final long lastId) {
+    return toToken(RANGE + SEPARATOR + sortValue + SEPARATOR + lastId);
+  }
+
+  /** @return the decoded cursor, or null if the token is not a valid cursor */
+  public static PageCursor decode(final String token) {
+    try {
+      final String cursor =
+          new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      final String collection = StringUtils.substringBefore(cursor, SEPARATOR);
+      final String lastId = StringUtils.substringAfter(cursor, SEPARATOR);
+
+      if ((PARENT_TASK.equals(collection) || TASK.equals(collection))
+          && NumberUtils.isDigits(lastId)) {
+        return new PageCursor(collection, Long.parseLong(lastId));
+      }
+    } catch (IllegalArgumentException ex) {
+      // Not a base64 token or id out of range, handled as an invalid cursor
+    }
+    return null;
+  }
+
+  /** @return the decoded range cursor, or null if the token is not a valid range cursor */
+  public static RangeCursor decodeRange(final String token) {
+    try {
+      final String[] cursor =
+          new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+              .split(SEPARATOR, -1);
+
+      if (cursor.length == 3
+          && RANGE.equals(cursor[0])
+          && NumberUtils.isDigits(StringUtils.removeStart(cursor[1], "-"))
+          && NumberUtils.isDigits(cursor[2])) {
+        return new RangeCursor(Long.parseLong(cursor[1]), Long.parseLong(cursor[2]));
+      }
+    } catch (IllegalArgumentException ex) {
+      // Not a base64 token or value out of range, handled as an invalid cursor
+    }
+    return null;
+  }
+
+  private static String toToken(final String cursor) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class RangeCursor {
+    private final long sortValue;
+    private final long lastId;
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class PageCursor {
+    private final String collection;
+    private final long lastId;
+  }
+}
@@ -2,34 +2,120 @@ package casestudy.taskmanager.util;
 
 import casestudy.taskmanager.domains.DatabaseSequence;
 import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.exception.DBException;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 import static org.springframework.data.mongodb.core.query.Query.query;
 
+/**
+ * Hands out sequence ids from blocks reserved in the database_sequences collection.
+ *
+ * <p>A block of blockSize ids is reserved with a single atomic increment of the counter, so every
+ * application node owns a distinct range and ids stay unique across nodes. Ids inside a block are
+ * handed out from memory without locking. Ids of a partly used block are lost when the application
+ * stops, so sequences can have gaps.
+ */
 @Component
 @Log4j2
 public class SequenceGeneratorUtil {
+  private final long blockSize;
+  private final Map<String, AtomicReference<SequenceBlock>> sequenceBlocks =
+      new ConcurrentHashMap<>();
+
+  public SequenceGeneratorUtil(
+      @Value("${taskmanager.sequence.block-size:50}") final long blockSize) {
+    if (blockSize < 1) {
+      throw new IllegalArgumentException("Sequence block size must be at least 1");
+    }
+    this.blockSize = blockSize;
+  }
+
   public Long generateSequence(final String seqName, final MongoTemplate mongoTemplate) {
     log.debug("Generating sequence for {}", seqName);
 
+    final AtomicReference<SequenceBlock> blockRef =
+        sequenceBlocks.computeIfAbsent(seqName, name -> new AtomicReference<>());
+
+    while (true) {
+      final SequenceBlock block = blockRef.get();
+      if (block != null) {
+        final long sequence = block.next.getAndIncrement();
+        if (sequence <= block.last) {
+          return sequence;
+        }
+      }
+
+      // Current block is used up, only one thread reserves the next block
+      synchronized (blockRef) {
+        if (blockRef.get() == block) {
+          blockRef.set(reserveBlock(seqName, mongoTemplate));
+        }
+      }
+    }
+  }
+
+  /**
+   * Reserve count consecutive ids with a single increment, apart from the block shared by {@link
+   * #generateSequence(String, MongoTemplate)}. Used by bulk inserts.
+   *
+   * @return the first id of the reserved range
+   */
+  public long reserveSequences(
+      final String seqName, final int count, final MongoTemplate mongoTemplate) {
+    log.debug("Reserving {} sequences for {}", count, seqName);
+
+    return incrementCounter(seqName, count, mongoTemplate) - count + 1;
+  }
+
+  private SequenceBlock reserveBlock(final String seqName, final MongoTemplate mongoTemplate) {
+    final long last = incrementCounter(seqName, blockSize, mongoTemplate);
+
+    log.debug("Reserved sequence block {} to {} for {}", last - blockSize + 1, last, seqName);
+
+    return new SequenceBlock(last - blockSize + 1, last);
+  }
+
+  private long incrementCounter(
+      final String seqName, final long increment, final MongoTemplate mongoTemplate) {
     DatabaseSequence counter =
         mongoTemplate.findAndModify(
             query(where("_id").is(seqName)),
-            new Update().inc(seqName, 1),
+            new Update().inc(seqName, increment),
             options().returnNew(true).upsert(true),
             DatabaseSequence.class);
-    return !Objects.isNull(counter)
-        ? (StringUtils.equals(seqName, ParentTask.SEQUENCE_NAME)
-            ? counter.getParentTaskSequence()
-            : counter.getTaskSequence())
-        : 1;
+
+    final Long last =
+        Objects.isNull(counter)
+            ? null
+            : (StringUtils.equals(seqName, ParentTask.SEQUENCE_NAME)
+                ? counter.getParentTaskSequence()
+                : counter.getTaskSequence());
+    if (last == null) {
+      throw new DBException("Failed to reserve a block for sequence " + seqName);
+    }
+    return last;
+  }
+
+  private static class SequenceBlock {
+    private final AtomicLong next;
+    private final long last;
+
+    private SequenceBlock(final long first, final long last) {
+      this.next = new AtomicLong(first);
+      this.last = last;
+    }
   }
 }
@@ -0,0 +1,77 @@
+package casestudy.taskmanager.util;
+
+import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskModel;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Joins tasks with their parent, which is either a {@link ParentTask} (isParentCollection = true)
+ * or another {@link Task} (isParentCollection = false).
+ *
+ * <p>Both parent sources are indexed by id once, so resolving the parent of every task is a single
+ * hash lookup instead of a scan of the parent list per task.
+ */
+public class TaskJoinUtil {
+
+  private TaskJoinUtil() {}
+
+  public static LongIndexMap<ParentTask> indexParentTasks(final List<ParentTask> parentTaskList) {
+    LongIndexMap<ParentTask> parentTaskIndex = new LongIndexMap<>(parentTaskList.size());
+    for (ParentTask parentTask : parentTaskList) {
+      if (parentTask.getParentId() != null) {
+        // First match wins, same as the earlier findFirst lookup
+        parentTaskIndex.putIfAbsent(parentTask.getParentId(), parentTask);
+      }
+    }
+    return parentTaskIndex;
+  }
+
+  public static LongIndexMap<Task> indexTasks(final List<Task> taskList) {
+    LongIndexMap<Task> taskIndex = new LongIndexMap<>(taskList.size());
+    for (Task task : taskList) {
+      if (task.getTaskId() != null) {
+        taskIndex.putIfAbsent(task.getTaskId(), task);
+      }
+    }
+    return taskIndex;
+  }
+
+  public static List<TaskModel> joinParents(
+      final List<ParentTask> parentTaskList, final List<Task> taskList) {
+    final LongIndexMap<ParentTask> parentTaskIndex = indexParentTasks(parentTaskList);
+    final LongIndexMap<Task> taskIndex = indexTasks(taskList);
+
+    return taskList
+        .parallelStream()
+        .map(task -> toTaskModel(task, parentTaskIndex, taskIndex))
+        .collect(Collectors.toList());
+  }
+
+  public static TaskModel toTaskModel(
+      final Task task,
+      final LongIndexMap<ParentTask> parentTaskIndex,
+      final LongIndexMap<Task> taskIndex) {
+    TaskModel taskModel = TaskModelMapper.toTaskModel(task);
+
+    if (task.getParentId() != null) {
+      if (Boolean.TRUE.equals(task.getIsParentCollection())) {
+        // Set the Parent Task if parent is in parent table
+        ParentTask parentTask = parentTaskIndex.get(task.getParentId());
+        if (parentTask != null) {
+          taskModel.setParentTask(parentTask.getParentTask());
+        }
+      } else if (Boolean.FALSE.equals(task.getIsParentCollection())) {
+        // Set the Parent Task if parent is in task table
+        Task parentTaskInTask = taskIndex.get(task.getParentId());
+        if (parentTaskInTask != null) {
+          taskModel.setParentTask(parentTaskInTask.getTask());
+        }
+      }
+    }
+
+    return taskModel;
+  }
+}
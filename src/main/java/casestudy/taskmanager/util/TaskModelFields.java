@@ -0,0 +1,89 @@
+package casestudy.taskmanager.util;
+
+import casestudy.taskmanager.models.TaskModel;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Sparse fieldsets of the TaskModel lists, the comma separated names of the fields a client reads.
+ * The fields left out are neither read from Mongo nor written to the JSON output, as the TaskModel
+ * leaves out null fields.
+ */
+public class TaskModelFields {
+  public static final String TASK_ID = "taskId";
+  public static final String TASK = "task";
+  public static final String PRIORITY = "priority";
+  public static final String PARENT_ID = "parentId";
+  public static final String PARENT_TASK = "parentTask";
+  public static final String START_DATE = "startDate";
+  public static final String END_DATE = "endDate";
+  public static final String IS_PARENT_COLLECTION = "isParentCollection";
+
+  public static final Set<String> ALL =
+      Collections.unmodifiableSet(
+          new LinkedHashSet<>(
+              Arrays.asList(
+                  TASK_ID,
+                  TASK,
+                  PRIORITY,
+                  PARENT_ID,
+                  PARENT_TASK,
+                  START_DATE,
+                  END_DATE,
+                  IS_PARENT_COLLECTION)));
+
+  private TaskModelFields() {}
+
+  /** @return the requested fields, ALL for a blank parameter, or null if a field is unknown */
+  public static Set<String> parse(final String fields) {
+    if (StringUtils.isBlank(fields)) {
+      return ALL;
+    }
+
+    Set<String> fieldSet = new LinkedHashSet<>();
+    for (String field : StringUtils.split(fields, ',')) {
+      final String name = field.trim();
+      if (!ALL.contains(name)) {
+        return null;
+      }
+      fieldSet.add(name);
+    }
+    return fieldSet.size() == ALL.size() ? ALL : fieldSet;
+  }
+
+  /** Clear the fields of the TaskModel left out of the fieldset. */
+  public static TaskModel retain(final TaskModel taskModel, final Set<String> fields) {
+    if (fields == ALL) {
+      return taskModel;
+    }
+    if (!fields.contains(TASK_ID)) {
+      taskModel.setTaskId(null);
+    }
+    if (!fields.contains(TASK)) {
+      taskModel.setTask(null);
+    }
+    if (!fields.contains(PRIORITY)) {
+      taskModel.setPriority(null);
+    }
+    if (!fields.contains(PARENT_ID)) {
+      taskModel.setParentId(null);
+    }
+    if (!fields.contains(PARENT_TASK)) {
+      taskModel.setParentTask(null);
+    }
+    if (!fields.contains(START_DATE)) {
+      taskModel.setStartDate(null);
+    }
+    if (!fields.contains(END_DATE)) {
+      taskModel.setEndDate(null);
+    }
+    if (!fields.contains(IS_PARENT_COLLECTION)) {
+      taskModel.setIsParentCollection(null);
+    }
+    return taskModel;
+  }
+}
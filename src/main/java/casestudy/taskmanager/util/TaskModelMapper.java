@@ -0,0 +1,38 @@
+package casestudy.taskmanager.util;
+
+import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskModel;
+
+/**
+ * Copies the task and parent task fields into a TaskModel with plain getters and setters, in place
+ * of the reflective BeanUtils.copyProperties. Each copy writes the same properties BeanUtils did,
+ * the ones with the same name and type on both classes, null values included, so copying a parent
+ * task after its task still overwrites the parentId of the task.
+ */
+public class TaskModelMapper {
+
+  private TaskModelMapper() {}
+
+  public static TaskModel toTaskModel(final Task task) {
+    TaskModel taskModel = new TaskModel();
+    copy(task, taskModel);
+
+    return taskModel;
+  }
+
+  public static void copy(final Task task, final TaskModel taskModel) {
+    taskModel.setTaskId(task.getTaskId());
+    taskModel.setTask(task.getTask());
+    taskModel.setPriority(task.getPriority());
+    taskModel.setParentId(task.getParentId());
+    taskModel.setStartDate(task.getStartDate());
+    taskModel.setEndDate(task.getEndDate());
+    taskModel.setIsParentCollection(task.getIsParentCollection());
+  }
+
+  public static void copy(final ParentTask parentTask, final TaskModel taskModel) {
+    taskModel.setParentId(parentTask.getParentId());
+    taskModel.setParentTask(parentTask.getParentTask());
+  }
+}
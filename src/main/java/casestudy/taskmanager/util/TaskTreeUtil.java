@@ -0,0 +1,105 @@
+package casestudy.taskmanager.util;
+
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskModel;
+import casestudy.taskmanager.models.TaskTreeNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds task-as-parent hierarchies, where a task with isParentCollection = false has the
+ * task_id of another task as parentId, from the flat list of tasks read for a subtree or lineage.
+ */
+public class TaskTreeUtil {
+
+  private TaskTreeUtil() {}
+
+  /**
+   * Nest the descendants under the root, level by level. Children are ordered by task id and a
+   * task reached twice, only possible with a cycle in the data, is kept at its first position.
+   */
+  public static TaskTreeNode buildTree(
+      final Task root, final String rootParentTask, final Collection<Task> descendants) {
+    Map<Long, List<Task>> childrenByParentId = new HashMap<>();
+    for (Task task : descendants) {
+      if (!Boolean.TRUE.equals(task.getIsParentCollection()) && task.getParentId() != null) {
+        childrenByParentId.computeIfAbsent(task.getParentId(), id -> new ArrayList<>()).add(task);
+      }
+    }
+    childrenByParentId
+        .values()
+        .forEach(children -> children.sort(Comparator.comparing(Task::getTaskId)));
+
+    TaskTreeNode rootNode =
+        new TaskTreeNode(toTaskModel(root, rootParentTask), 0, new ArrayList<>());
+    Set<Long> visited = new HashSet<>();
+    visited.add(root.getTaskId());
+
+    Deque<TaskTreeNode> pending = new ArrayDeque<>();
+    pending.add(rootNode);
+    while (!pending.isEmpty()) {
+      TaskTreeNode node = pending.poll();
+      for (Task child :
+          childrenByParentId.getOrDefault(node.getTask().getTaskId(), Collections.emptyList())) {
+        if (visited.add(child.getTaskId())) {
+          TaskTreeNode childNode =
+              new TaskTreeNode(
+                  toTaskModel(child, node.getTask().getTask()),
+                  node.getDepth() + 1,
+                  new ArrayList<>());
+          node.getSubTasks().add(childNode);
+          pending.add(childNode);
+        }
+      }
+    }
+
+    return rootNode;
+  }
+
+  /**
+   * Follow the parent links of the task through the candidate ancestors, up to maxDepth levels.
+   * The walk stops at a task whose parent is a parent task, or at a parent not among candidates.
+   *
+   * @return the ancestors of the task, nearest first
+   */
+  public static List<Task> ancestorChain(
+      final Task task, final Collection<Task> candidates, final int maxDepth) {
+    Map<Long, Task> candidateById = new HashMap<>();
+    candidates.forEach(candidate -> candidateById.putIfAbsent(candidate.getTaskId(), candidate));
+
+    List<Task> ancestors = new ArrayList<>();
+    Set<Long> visited = new HashSet<>();
+    visited.add(task.getTaskId());
+
+    Task current = task;
+    while (ancestors.size() < maxDepth
+        && !Boolean.TRUE.equals(current.getIsParentCollection())
+        && current.getParentId() != null) {
+      Task parent = candidateById.get(current.getParentId());
+      if (parent == null || !visited.add(parent.getTaskId())) {
+        break;
+      }
+      ancestors.add(parent);
+      current = parent;
+    }
+
+    return ancestors;
+  }
+
+  public static TaskModel toTaskModel(final Task task, final String parentTask) {
+    TaskModel taskModel = TaskModelMapper.toTaskModel(task);
+    taskModel.setParentTask(parentTask);
+
+    return taskModel;
+  }
+}
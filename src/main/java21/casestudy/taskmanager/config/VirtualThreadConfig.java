@@ -0,0 +1,48 @@
+package casestudy.taskmanager.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Tomcat request handling, and with it the blocking Mongo calls of the service, on virtual
+ * threads. Virtual threads need Java 21, so this class lives in src/main/java21 and is only
+ * compiled by the java21 profile; a Java 17 build keeps the default Tomcat thread pool.
+ */
+@Configuration
+@Profile("!reactive")
+@Log4j2
+@ConditionalOnProperty(name = "taskmanager.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+  private final ExecutorService virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public VirtualThreadConfig() {
+    log.info("Serving requests on virtual threads");
+  }
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+    return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+  }
+
+  /** Used by Spring MVC for async requests, such as the streamed task export. */
+  @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  public AsyncTaskExecutor applicationTaskExecutor() {
+    return new TaskExecutorAdapter(virtualThreadExecutor);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    virtualThreadExecutor.shutdown();
+  }
+}
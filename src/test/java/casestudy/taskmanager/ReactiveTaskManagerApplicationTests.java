@@ -0,0 +1,56 @@
+package casestudy.taskmanager;
+
+import casestudy.taskmanager.service.TaskCollectionVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.mockito.Mockito.doReturn;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles({"test", "reactive"})
+public class ReactiveTaskManagerApplicationTests {
+  @Autowired private WebTestClient webTestClient;
+  // The version is read from the database, which the tests do not reach
+  @MockBean private TaskCollectionVersion taskCollectionVersion;
+
+  @BeforeEach
+  public void setUp() {
+    doReturn("\"0\"").when(taskCollectionVersion).getETag();
+  }
+
+  @Test
+  public void searchTasks_invalidPriorityRange_badRequest() {
+    webTestClient
+        .post()
+        .uri("/api/taskManager/search")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"priorityFrom\":10,\"priorityTo\":5}")
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody(String.class)
+        .isEqualTo("Priority From is greater than Priority To");
+  }
+
+  @Test
+  public void getAllTasks_unknownField_badRequest() {
+    webTestClient
+        .get()
+        .uri("/api/taskManager/allTasks?fields=task,owner")
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody(String.class)
+        .isEqualTo(
+            "Fields must be a comma separated list of taskId, task, priority, parentId,"
+                + " parentTask, startDate, endDate, isParentCollection");
+  }
+}
@@ -1,11 +1,34 @@
 package casestudy.taskmanager;
 
+import com.mongodb.reactivestreams.client.MongoClient;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
+@ActiveProfiles("test")
 public class TaskManagerApplicationTests {
 
+  @Autowired private ApplicationContext applicationContext;
+
   @Test
   public void contextLoads() {}
+
+  @Test
+  public void servletStackHasNoReactiveMongoClient() {
+    assertEquals(0, applicationContext.getBeanNamesForType(MongoClient.class).length);
+    assertEquals(0, applicationContext.getBeanNamesForType(ReactiveMongoTemplate.class).length);
+  }
+
+  @Test
+  public void bootTaskExecutorIsNotReplaced() {
+    // Runs the MVC async requests, only created when no other Executor bean is defined
+    assertTrue(applicationContext.containsBean("applicationTaskExecutor"));
+  }
 }
@@ -0,0 +1,83 @@
+package casestudy.taskmanager.config;
+
+import casestudy.taskmanager.domains.Task;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class MongoIndexConfigTest {
+  private MongoTemplate mongoTemplate;
+  private IndexOperations indexOps;
+  private MongoIndexConfig mongoIndexConfig;
+
+  @BeforeEach
+  public void setUp() {
+    mongoTemplate = mock(MongoTemplate.class);
+    indexOps = mock(IndexOperations.class);
+    doReturn(indexOps).when(mongoTemplate).indexOps(any(Class.class));
+    MongoMappingContext mappingContext = new MongoMappingContext();
+    mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+    doReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext))
+        .when(mongoTemplate)
+        .getConverter();
+    mongoIndexConfig = new MongoIndexConfig(mongoTemplate);
+  }
+
+  @Test
+  public void unreachableMongoIsOnlyLogged() {
+    doThrow(new UncategorizedMongoDbException("Timed out", null)).when(indexOps).getIndexInfo();
+
+    assertDoesNotThrow(mongoIndexConfig::provisionIndexes);
+  }
+
+  @Test
+  public void missingUniqueIndexFailsStartup() {
+    doReturn(List.of(index("task_fields_unique_idx", false))).when(indexOps).getIndexInfo();
+
+    assertThrows(IllegalStateException.class, mongoIndexConfig::provisionIndexes);
+  }
+
+  @Test
+  public void onlyLegacyIndexesAreDropped() {
+    doReturn(
+            List.of(
+                index("task_fields_idx", false),
+                index("operator_task_idx", false),
+                index(Task.FIELDS_UNIQUE_INDEX, true)))
+        .when(indexOps)
+        .getIndexInfo();
+
+    assertDoesNotThrow(mongoIndexConfig::provisionIndexes);
+
+    verify(indexOps).dropIndex("task_fields_idx");
+    verify(indexOps, never()).dropIndex("operator_task_idx");
+    verify(indexOps, never()).dropIndex(Task.FIELDS_UNIQUE_INDEX);
+  }
+
+  private static IndexInfo index(final String name, final boolean unique) {
+    Document indexDocument = new Document("name", name).append("key", new Document("task", 1));
+    if (unique) {
+      indexDocument.append("unique", true);
+    }
+    return IndexInfo.indexInfoOf(indexDocument);
+  }
+}
@@ -1,13 +1,32 @@
 package casestudy.taskmanager.controllers;
 
+import casestudy.taskmanager.config.ExceptionHandlerConfig;
+import casestudy.taskmanager.domains.CollectionVersion;
 import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.domains.ParentTaskStats;
 import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskModel;
 import casestudy.taskmanager.repositories.ParentTaskRepository;
 import casestudy.taskmanager.repositories.TaskManagerRepository;
 import casestudy.taskmanager.repositories.TaskRepository;
+import casestudy.taskmanager.service.I18nMessagesCache;
+import casestudy.taskmanager.service.ParentTaskCache;
+import casestudy.taskmanager.service.ParentTaskStatsStore;
+import casestudy.taskmanager.service.TaskChangeFeed;
+import casestudy.taskmanager.service.TaskCollectionVersion;
+import casestudy.taskmanager.service.TaskHierarchyIndex;
 import casestudy.taskmanager.service.TaskManagerService;
+import casestudy.taskmanager.service.TaskReadView;
 import casestudy.taskmanager.util.DateUtil;
 import casestudy.taskmanager.util.SequenceGeneratorUtil;
+import casestudy.taskmanager.util.TaskJoinUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -15,26 +34,53 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.context.MessageSource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
 @AutoConfigureMockMvc
 public class TaskManagerControllerTest {
   private final String baseUrl = "/api/taskManager";
@@ -47,30 +93,62 @@ public class TaskManagerControllerTest {
   @Mock private SequenceGeneratorUtil sequenceGeneratorUtil;
   @Mock private MongoTemplate mongoTemplate;
   @Autowired private MessageSource messageSource;
+  @Autowired private TaskChangeFeed taskChangeFeed;
 
   @Autowired private DateUtil dateUtil;
+  @Autowired private ObjectMapper objectMapper;
+
+  private TaskCollectionVersion taskCollectionVersion;
 
   @BeforeEach
   public void setUp() throws Exception {
     MockitoAnnotations.initMocks(this);
-
-    TaskManagerService taskManagerService =
-        new TaskManagerService(
-            taskRepository,
-            parentTaskRepository,
-            taskManagerRepository,
-            sequenceGeneratorUtil,
-            mongoTemplate,
-            messageSource);
-    TaskManagerController taskManagerControllerToTest =
-        new TaskManagerController(taskManagerService, dateUtil);
-
-    mockMvc = MockMvcBuilders.standaloneSetup(taskManagerControllerToTest).build();
+    taskCollectionVersion = new TaskCollectionVersion(mongoTemplate);
+
+    // The collection version document, shared by the TaskCollectionVersion of every node
+    CollectionVersion storedVersion = new CollectionVersion();
+    storedVersion.setEpoch("epoch");
+    storedVersion.setVersion(0L);
+    doAnswer(
+            invocation -> {
+              storedVersion.setVersion(storedVersion.getVersion() + 1);
+              return null;
+            })
+        .when(mongoTemplate)
+        .upsert(any(Query.class), any(UpdateDefinition.class), eq(CollectionVersion.class));
+    doReturn(storedVersion).when(mongoTemplate).findById(any(), eq(CollectionVersion.class));
+
+    mockMvc = standaloneMockMvc(taskChangeFeed);
 
     doReturn(dummyTaskList()).when(taskRepository).findAll();
     doReturn(dummyParentTaskList()).when(parentTaskRepository).findAll();
     doCallRealMethod().when(taskManagerRepository).getTaskModelList(anyList(), anyList());
 
+    doReturn(dummyTaskModelList())
+        .when(taskManagerRepository)
+        .findTaskModels(any(Criteria.class), anySet());
+
+    doReturn(dummyTaskModelList())
+        .when(taskManagerRepository)
+        .searchTaskModels(any(TaskModel.class));
+
+    doAnswer(invocation -> dummyTaskModelList().stream())
+        .when(taskManagerRepository)
+        .streamTaskModels(any(Criteria.class));
+
+    doReturn(dummyTaskModelList())
+        .when(taskManagerRepository)
+        .findTaskModelPage(any(Criteria.class), anyLong(), anyInt());
+
+    doReturn(dummyTaskModelList())
+        .when(taskManagerRepository)
+        .findTaskModelRange(
+            anyString(), any(), any(), any(Sort.Direction.class), any(), anyLong(), anyInt());
+
+    doReturn(dummyParentTaskList())
+        .when(parentTaskRepository)
+        .findByParentIdGreaterThanOrderByParentIdAsc(anyLong(), any(Pageable.class));
+
     doReturn(dummyTaskList()).when(taskRepository).findByTask(anyString());
 
     doReturn(dummyTaskList()).when(taskRepository).findByTaskId(anyLong());
@@ -99,9 +177,46 @@ public class TaskManagerControllerTest {
 
     doReturn(dummyTask()).when(taskRepository).save(any(Task.class));
 
+    doReturn(dummyTask()).when(taskRepository).insert(any(Task.class));
+
+    doReturn(1l)
+        .when(sequenceGeneratorUtil)
+        .reserveSequences(anyString(), anyInt(), any(MongoTemplate.class));
+
+    doReturn(mock(BulkOperations.class, RETURNS_SELF))
+        .when(mongoTemplate)
+        .bulkOps(any(BulkOperations.BulkMode.class), eq(Task.class));
+
     doReturn(dummyParentTask()).when(parentTaskRepository).save(any(ParentTask.class));
   }
 
+  private MockMvc standaloneMockMvc(final TaskChangeFeed changeFeed) {
+    TaskManagerService taskManagerService =
+        new TaskManagerService(
+            taskRepository,
+            parentTaskRepository,
+            new ParentTaskCache(parentTaskRepository),
+            new TaskHierarchyIndex(taskRepository),
+            new TaskReadView(taskRepository, parentTaskRepository),
+            new ParentTaskStatsStore(mongoTemplate, new SimpleMeterRegistry()),
+            taskCollectionVersion,
+            changeFeed,
+            taskManagerRepository,
+            sequenceGeneratorUtil,
+            mongoTemplate,
+            messageSource);
+    TaskManagerController taskManagerControllerToTest =
+        new TaskManagerController(
+            taskManagerService,
+            new I18nMessagesCache(messageSource, objectMapper, null, Duration.ofDays(1)),
+            dateUtil,
+            objectMapper);
+
+    return MockMvcBuilders.standaloneSetup(taskManagerControllerToTest)
+        .setControllerAdvice(new ExceptionHandlerConfig())
+        .build();
+  }
+
   @Test
   public void getAllTasks() throws Exception {
     mockMvc
@@ -112,6 +227,40 @@ public class TaskManagerControllerTest {
         .andExpect(MockMvcResultMatchers.jsonPath("$[0].taskId").exists());
   }
 
+  @Test
+  public void exportAllTasks() throws Exception {
+    MvcResult mvcResult =
+        mockMvc
+            .perform(MockMvcRequestBuilders.get(baseUrl + "/allTasks/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(mvcResult))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/x-ndjson"))
+        .andExpect(content().string(containsString("\"taskId\":1")));
+  }
+
+  @Test
+  public void exportAllTasks_gzipRefusedWithZeroQuality() throws Exception {
+    MvcResult mvcResult =
+        mockMvc
+            .perform(
+                MockMvcRequestBuilders.get(baseUrl + "/allTasks/export")
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(mvcResult))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+        .andExpect(content().string(containsString("\"taskId\":1")));
+  }
+
   @Test
   public void getAllParents() throws Exception {
     mockMvc
@@ -123,6 +272,196 @@ public class TaskManagerControllerTest {
         .andExpect(MockMvcResultMatchers.jsonPath("$[0].parentId").exists());
   }
 
+  @Test
+  public void getTaskByPriorityRange() throws Exception {
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get(baseUrl + "/taskByPriorityRange?from=1&to=20&sort=desc")
+                .accept(MediaType.APPLICATION_JSON))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].taskId").exists())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist());
+  }
+
+  @Test
+  public void getTaskByPriorityRange_invalidRange() throws Exception {
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get(baseUrl + "/taskByPriorityRange?from=20&to=1")
+                .headers(getHttpHeaders("en")))
+        .andDo(print())
+        .andExpect(status().isBadRequest())
+        .andExpect(content().string("Priority From is greater than Priority To"));
+  }
+
+  @Test
+  public void getTaskSubtree() throws Exception {
+    Task subTask = new Task(2l, 1l, "Sub Task", LocalDate.now(), null, 5, false);
+    doReturn(Arrays.asList(dummyTask(), subTask))
+        .when(taskManagerRepository)
+        .findSubtree(anyLong(), anyInt());
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get(baseUrl + "/taskSubtree/1?maxDepth=3")
+                .accept(MediaType.APPLICATION_JSON))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.task.parentTask").value("Test Parent Task"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.subTasks[0].task.taskId").value(2))
+        .andExpect(
+            MockMvcResultMatchers.jsonPath("$.subTasks[0].task.parentTask").value("Test Task"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.subTasks[0].depth").value(1));
+  }
+
+  @Test
+  public void getParentTaskStats() throws Exception {
+    doReturn(Arrays.asList(new ParentTaskStats(1l, 2, 1, 7)))
+        .when(mongoTemplate)
+        .findAll(ParentTaskStats.class);
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get(baseUrl + "/parentTaskStats")
+                .accept(MediaType.APPLICATION_JSON))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].parentTask").value("Test Parent Task"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].activeTasks").value(2))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].endedTasks").value(1))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].averagePriority").value(3.5));
+  }
+
+  @Test
+  public void getAllTasks_notModifiedUntilTaskSaved() throws Exception {
+    final String eTag =
+        mockMvc
+            .perform(
+                MockMvcRequestBuilders.get(baseUrl + "/allTasks")
+                    .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get(baseUrl + "/allTasks")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isNotModified());
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post(baseUrl + "/addTask")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(getHttpHeaders("en"))
+                .content(
+                    "{\"task\": \"test task\", \"priority\": 1, \"startDate\": \"12-12-2019\","
+                        + " \"isParentCollection\": true}"))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get(baseUrl + "/allTasks")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].taskId").exists());
+  }
+
+  @Test
+  public void getTaskChanges_pushesAddedTask() throws Exception {
+    MvcResult subscription =
+        mockMvc
+            .perform(
+                MockMvcRequestBuilders.get(baseUrl + "/taskChanges")
+                    .accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post(baseUrl + "/addTask")
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(getHttpHeaders("en"))
+                .content(
+                    "{\"task\": \"pushed task\", \"priority\": 1,"
+                        + " \"startDate\": \"12-12-2019\", \"isParentCollection\": true}"))
+        .andExpect(status().isOk());
+
+    // The event is written by the change feed executor, its name before its data
+    final long deadline = System.currentTimeMillis() + 5000;
+    String events = subscription.getResponse().getContentAsString();
+    while (!events.contains("\"type\":\"taskAdded\"") && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+      events = subscription.getResponse().getContentAsString();
+    }
+    // The saved task is the one returned by the mocked repository
+    assertTrue(events.contains("event:taskAdded"), events);
+    assertTrue(events.contains("\"taskId\":1"), events);
+  }
+
+  @Test
+  public void getTaskChanges_feedFullRefusedWithRetryAfter() throws Exception {
+    TaskChangeFeed fullFeed = mock(TaskChangeFeed.class);
+    doReturn(Optional.empty()).when(fullFeed).subscribe();
+    doReturn(30L).when(fullFeed).getRetryAfterSeconds();
+
+    standaloneMockMvc(fullFeed)
+        .perform(
+            MockMvcRequestBuilders.get(baseUrl + "/taskChanges")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "30"));
+  }
+
+  @Test
+  public void getAllParentsAndActiveTasks_sparseFieldset() throws Exception {
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get(baseUrl + "/allParentsAndActiveTasks?fields=taskId,task")
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].parentTask").doesNotExist());
+
+    verify(taskManagerRepository)
+        .findTaskModels(any(Criteria.class), eq(new LinkedHashSet<>(List.of("taskId", "task"))));
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get(baseUrl + "/allTasks?fields=taskId,owner")
+                .headers(getHttpHeaders("en"))
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().string(containsString("taskId, task, priority")));
+  }
+
+  @Test
+  public void getAllTasksPage() throws Exception {
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get(baseUrl + "/allTasks/page?size=10")
+                .accept(MediaType.APPLICATION_JSON))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].taskId").exists())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist());
+  }
+
+  @Test
+  public void getAllParentsAndActiveTasksPage() throws Exception {
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get(baseUrl + "/allParentsAndActiveTasks/page?size=1")
+                .accept(MediaType.APPLICATION_JSON))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].parentId").exists())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").exists());
+  }
+
   @Test
   public void getTaskByName() throws Exception {
     mockMvc
@@ -199,6 +538,106 @@ public class TaskManagerControllerTest {
                 .value("Successfully added task to Database!"));
   }
 
+  @Test
+  public void addTask_duplicateRejectedByUniqueIndex() throws Exception {
+    doThrow(new DuplicateKeyException("E11000 duplicate key error"))
+        .when(taskRepository)
+        .insert(any(Task.class));
+
+    String jsonStr =
+        "{\n"
+            + "\t\"task\" :\"test task\",\n"
+            + "\t\"priority\" : \"1\",\n"
+            + "\t\"startDate\":\"12-12-2019\",\n"
+            + "\t\"isParentCollection\":true\n"
+            + "}";
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post(baseUrl + "/addTask")
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .headers(getHttpHeaders("en"))
+                .content(jsonStr))
+        .andDo(print())
+        .andExpect(status().isInternalServerError())
+        .andExpect(content().string("Task already exists"));
+  }
+
+  @Test
+  public void addTasks() throws Exception {
+    String ndjson =
+        "{\"task\":\"bulk task\",\"priority\":1,\"startDate\":\"12-12-2019\"}\n"
+            + "{\"task\":\"bulk task\",\"priority\":1,\"startDate\":\"12-12-2019\"}\n"
+            + "{\"task\":\"\",\"priority\":1,\"startDate\":\"12-12-2019\"}\n";
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post(baseUrl + "/addTasks")
+                .contentType("application/x-ndjson")
+                .content(ndjson))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.added").value(1))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.rows[0].status").value("ADDED"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.rows[1].status").value("DUPLICATE"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.rows[2].status").value("INVALID"));
+  }
+
+  @Test
+  public void getAllTasks_modifiedByWriteOnAnotherNode() throws Exception {
+    final String eTag =
+        mockMvc
+            .perform(
+                MockMvcRequestBuilders.get(baseUrl + "/allTasks")
+                    .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+    // A task saved through another node bumps the version stored in the database
+    new TaskCollectionVersion(mongoTemplate).bump();
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get(baseUrl + "/allTasks")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].taskId").exists());
+  }
+
+  @Test
+  public void addTasks_allRejectedKeepsETag() throws Exception {
+    BulkOperations bulkOperations = mock(BulkOperations.class, RETURNS_SELF);
+    doThrow(
+            new BulkOperationException(
+                "duplicate",
+                new MongoBulkWriteException(
+                    BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()),
+                    List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0)),
+                    null,
+                    new ServerAddress(),
+                    Set.of())))
+        .when(bulkOperations)
+        .execute();
+    doReturn(bulkOperations)
+        .when(mongoTemplate)
+        .bulkOps(any(BulkOperations.BulkMode.class), eq(Task.class));
+    // The default parent task exists, so nothing is written at all
+    doReturn(dummyParentTaskList()).when(parentTaskRepository).findByParentTask(anyString());
+    final String eTag = taskCollectionVersion.getETag();
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post(baseUrl + "/addTasks")
+                .contentType("application/x-ndjson")
+                .content(
+                    "{\"task\":\"bulk task\",\"priority\":1,\"startDate\":\"12-12-2019\"}\n"))
+        .andExpect(status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.rows[0].status").value("DUPLICATE"));
+
+    assertEquals(eTag, taskCollectionVersion.getETag());
+  }
+
   @Test
   public void updateTask() throws Exception {
     String jsonStr =
@@ -241,6 +680,26 @@ public class TaskManagerControllerTest {
         .andExpect(MockMvcResultMatchers.jsonPath("$[0].taskId").exists());
   }
 
+  @Test
+  public void searchTasksByText() throws Exception {
+    TaskModel textMatch = dummyTaskModelList().get(0);
+    textMatch.setTextScore(1.5);
+    doReturn(Arrays.asList(textMatch))
+        .when(taskManagerRepository)
+        .searchTaskModelsByText(any(TaskModel.class), anyInt());
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post(baseUrl + "/search")
+                .contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+                .headers(getHttpHeaders("en"))
+                .content("{\"searchText\": \"test\"}"))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].taskId").exists())
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].textScore").value(1.5));
+  }
+
   @Test
   public void endTask() throws Exception {
     mockMvc
@@ -262,6 +721,35 @@ public class TaskManagerControllerTest {
         .andExpect(MockMvcResultMatchers.jsonPath("$[0].key").exists());
   }
 
+  @Test
+  public void getI18nMessages_notModifiedForSameLocale() throws Exception {
+    final String eTag =
+        mockMvc
+            .perform(
+                MockMvcRequestBuilders.get(baseUrl + "/i18nMessages")
+                    .headers(getHttpHeaders("fr")))
+            .andExpect(status().isOk())
+            .andExpect(
+                MockMvcResultMatchers.header().string(HttpHeaders.CACHE_CONTROL, "max-age=86400"))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get(baseUrl + "/i18nMessages")
+                .headers(getHttpHeaders("fr"))
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified());
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get(baseUrl + "/i18nMessages")
+                .headers(getHttpHeaders("en"))
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isOk());
+  }
+
   private Task dummyTask() {
     Task task = new Task(1l, 1l, "Test Task", LocalDate.now(), LocalDate.now(), 15, false);
     task.setId("abc");
@@ -285,6 +773,10 @@ public class TaskManagerControllerTest {
     return Arrays.asList(dummyParentTask());
   }
 
+  private List<TaskModel> dummyTaskModelList() {
+    return TaskJoinUtil.joinParents(dummyParentTaskList(), dummyTaskList());
+  }
+
   private HttpHeaders getHttpHeaders(String lang) {
     HttpHeaders httpHeaders = new HttpHeaders();
     httpHeaders.add("Accept-Language", lang);
@@ -0,0 +1,271 @@
+package casestudy.taskmanager.repositories;
+
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskModel;
+import casestudy.taskmanager.util.PageCursorUtil;
+import casestudy.taskmanager.util.PageCursorUtil.RangeCursor;
+import casestudy.taskmanager.util.TaskModelFields;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class TaskManagerRepoImplTest {
+  private static final Document CASE_INSENSITIVE =
+      new Document("locale", "en").append("strength", 2);
+
+  private MappingMongoConverter converter;
+  private MongoTemplate mongoTemplate;
+  private TaskManagerRepoImpl taskManagerRepo;
+
+  @BeforeEach
+  public void setUp() {
+    MongoMappingContext mappingContext = new MongoMappingContext();
+    mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+    converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+    converter.afterPropertiesSet();
+
+    mongoTemplate = mock(MongoTemplate.class);
+    doReturn(new AggregationResults<>(List.of(), new Document()))
+        .when(mongoTemplate)
+        .aggregate(any(TypedAggregation.class), eq(TaskModel.class));
+    taskManagerRepo = new TaskManagerRepoImpl(mongoTemplate);
+  }
+
+  @Test
+  public void buildSearchCriteria_skipsBlankFieldsAndOpenPriorityRange() {
+    TaskModel taskModel = new TaskModel();
+    taskModel.setTask(" Build ");
+    taskModel.setParentTask("Release");
+    taskModel.setPriorityFrom(0);
+    taskModel.setPriorityTo(10);
+
+    assertEquals(
+        new Document("$and", List.of(new Document("task", "Build"))),
+        TaskManagerRepoImpl.buildSearchCriteria(taskModel).getCriteriaObject());
+    assertEquals(
+        new Document(),
+        TaskManagerRepoImpl.buildSearchCriteria(new TaskModel()).getCriteriaObject());
+  }
+
+  @Test
+  public void searchAggregation_comparesNamesWithCollation() {
+    TaskModel taskModel = new TaskModel();
+    taskModel.setParentTask(" Release ");
+    taskModel.setPriorityFrom(2);
+    taskModel.setPriorityTo(8);
+
+    TypedAggregation<Task> aggregation = TaskManagerRepoImpl.searchAggregation(taskModel);
+
+    List<Document> pipeline = pipeline(aggregation);
+    assertEquals(match(new Document("$and", List.of(priorityRange(2, 8)))), pipeline.get(0));
+    // The parent task name is only known after the lookup
+    assertEquals(match(new Document("parentTask", "Release")), pipeline.get(pipeline.size() - 1));
+    assertEquals(CASE_INSENSITIVE, aggregation.getOptions().getCollation().get().toDocument());
+  }
+
+  @Test
+  public void searchAggregation_withoutNamesUsesNoCollation() {
+    TaskModel taskModel = new TaskModel();
+    taskModel.setPriorityFrom(2);
+    taskModel.setPriorityTo(8);
+
+    assertFalse(
+        TaskManagerRepoImpl.searchAggregation(taskModel).getOptions().getCollation().isPresent());
+  }
+
+  @Test
+  public void searchTaskModelsByText_matchesTextFirstThenFilters() {
+    doReturn(
+            new AggregationResults<>(
+                List.of(new Document("parent_id", 1l).append("textScore", 1.5)), new Document()))
+        .when(mongoTemplate)
+        .aggregate(any(Aggregation.class), eq("parent_task"), eq(Document.class));
+    TaskModel taskModel = new TaskModel();
+    taskModel.setSearchText(" release build ");
+    taskModel.setPriorityFrom(2);
+    taskModel.setPriorityTo(8);
+
+    taskManagerRepo.searchTaskModelsByText(taskModel, 20);
+
+    ArgumentCaptor<TypedAggregation<Task>> aggregations =
+        ArgumentCaptor.forClass(TypedAggregation.class);
+    verify(mongoTemplate, times(2)).aggregate(aggregations.capture(), eq(TaskModel.class));
+
+    // $text has to be the first stage of the pipeline
+    List<Document> nameMatches = pipeline(aggregations.getAllValues().get(0));
+    assertEquals(
+        match(new Document("$text", new Document("$search", "release build"))),
+        nameMatches.get(0));
+    assertEquals(match(new Document("$and", List.of(priorityRange(2, 8)))), nameMatches.get(1));
+
+    List<Document> parentMatches = pipeline(aggregations.getAllValues().get(1));
+    assertEquals(
+        match(
+            new Document(
+                "$and",
+                Arrays.asList(
+                    new Document("isParentCollection", true),
+                    new Document("parent_id", new Document("$in", List.of(1l))),
+                    new Document("$and", List.of(priorityRange(2, 8)))))),
+        parentMatches.get(0));
+  }
+
+  @Test
+  public void findTaskModelRange_seeksPastTheCursorWithinTheRange() {
+    taskManagerRepo.findTaskModelRange("priority", 1, 10, Sort.Direction.ASC, 4, 12l, 21);
+
+    List<Document> pipeline = capturedPipeline();
+    assertEquals(
+        match(
+            new Document(
+                "$and",
+                Arrays.asList(
+                    priorityRange(1, 10),
+                    new Document(
+                        "$or",
+                        Arrays.asList(
+                            new Document("priority", new Document("$gt", 4)),
+                            new Document(
+                                "$and",
+                                Arrays.asList(
+                                    new Document("priority", 4),
+                                    new Document("task_id", new Document("$gt", 12l))))))))),
+        pipeline.get(0));
+    assertEquals(
+        new Document("$sort", new Document("priority", 1).append("task_id", 1)), pipeline.get(1));
+    assertEquals(new Document("$limit", 21l), pipeline.get(2));
+  }
+
+  @Test
+  public void findTaskModelRange_seeksPastANegativeCursorDescending() {
+    // Ended tasks have a negative priority, so the cursor of a descending page can be negative
+    RangeCursor cursor = PageCursorUtil.decodeRange(PageCursorUtil.encodeRange(-3, 12));
+
+    taskManagerRepo.findTaskModelRange(
+        "priority",
+        -5,
+        10,
+        Sort.Direction.DESC,
+        (int) cursor.getSortValue(),
+        cursor.getLastId(),
+        21);
+
+    List<Document> pipeline = capturedPipeline();
+    assertEquals(
+        match(
+            new Document(
+                "$and",
+                Arrays.asList(
+                    priorityRange(-5, 10),
+                    new Document(
+                        "$or",
+                        Arrays.asList(
+                            new Document("priority", new Document("$lt", -3)),
+                            new Document(
+                                "$and",
+                                Arrays.asList(
+                                    new Document("priority", -3),
+                                    new Document("task_id", new Document("$lt", 12l))))))))),
+        pipeline.get(0));
+    assertEquals(
+        new Document("$sort", new Document("priority", -1).append("task_id", -1)),
+        pipeline.get(1));
+  }
+
+  @Test
+  public void findTaskModels_looksUpEachParentInItsOwnCollectionOnly() {
+    taskManagerRepo.findTaskModels(new Criteria(), TaskModelFields.ALL);
+
+    List<Document> pipeline = capturedPipeline();
+    assertEquals(
+        new Document(
+            "$addFields",
+            new Document("parentTaskKey", parentKey("$parent_id", "$$REMOVE"))
+                .append("taskAsParentKey", parentKey("$$REMOVE", "$parent_id"))),
+        pipeline.get(1));
+    assertEquals(
+        lookup("parent_task", "parentTaskKey", "parent_id", "parentTaskLookup"), pipeline.get(2));
+    assertEquals(
+        lookup("task", "taskAsParentKey", "task_id", "taskAsParentLookup"), pipeline.get(3));
+    assertFalse(((Document) pipeline.get(4).get("$project")).containsKey("parentTaskKey"));
+  }
+
+  @Test
+  public void findTaskModels_withoutParentTaskFieldSkipsTheLookups() {
+    taskManagerRepo.findTaskModels(
+        new Criteria(), Set.of(TaskModelFields.TASK_ID, TaskModelFields.TASK));
+
+    List<Document> pipeline = capturedPipeline();
+    assertEquals(2, pipeline.size());
+    assertEquals(
+        new Document(
+            "$project",
+            new Document("_id", 0)
+                .append("taskId", "$task_id")
+                .append("task", "$task")
+                .append("textScore", "$textScore")),
+        pipeline.get(1));
+  }
+
+  private List<Document> capturedPipeline() {
+    ArgumentCaptor<TypedAggregation<Task>> aggregation =
+        ArgumentCaptor.forClass(TypedAggregation.class);
+    verify(mongoTemplate).aggregate(aggregation.capture(), eq(TaskModel.class));
+    return pipeline(aggregation.getValue());
+  }
+
+  // Rendered the way MongoTemplate renders a TypedAggregation, with the field names of Task
+  private List<Document> pipeline(final TypedAggregation<Task> aggregation) {
+    return aggregation.toPipeline(
+        new TypeBasedAggregationOperationContext(
+            Task.class, converter.getMappingContext(), new QueryMapper(converter)));
+  }
+
+  private static Document match(final Document criteria) {
+    return new Document("$match", criteria);
+  }
+
+  private static Document parentKey(final String inParentTask, final String inTask) {
+    return new Document(
+        "$cond",
+        Arrays.asList(
+            new Document("$eq", Arrays.asList("$isParentCollection", true)), inParentTask, inTask));
+  }
+
+  private static Document lookup(
+      final String from, final String localField, final String foreignField, final String as) {
+    return new Document(
+        "$lookup",
+        new Document("from", from)
+            .append("localField", localField)
+            .append("foreignField", foreignField)
+            .append("as", as));
+  }
+
+  private static Document priorityRange(final int from, final int to) {
+    return new Document("priority", new Document("$gte", from).append("$lte", to));
+  }
+}
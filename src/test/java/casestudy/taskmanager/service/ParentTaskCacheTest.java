@@ -0,0 +1,140 @@
+package casestudy.taskmanager.service;
+
+import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.models.CacheStats;
+import casestudy.taskmanager.repositories.ParentTaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class ParentTaskCacheTest {
+  private ParentTaskRepository parentTaskRepository;
+  private ParentTaskCache parentTaskCache;
+
+  @BeforeEach
+  public void setUp() {
+    parentTaskRepository = mock(ParentTaskRepository.class);
+    parentTaskCache = new ParentTaskCache(parentTaskRepository);
+
+    doReturn(Arrays.asList(parentTask(1l, "NA"), parentTask(2l, "Release")))
+        .when(parentTaskRepository)
+        .findAll();
+  }
+
+  @Test
+  public void loadedParentTasksAreReadFromCache() {
+    parentTaskCache.load();
+
+    assertEquals("Release", parentTaskCache.findByParentId(2l).get(0).getParentTask());
+    assertEquals(Long.valueOf(1), parentTaskCache.findByParentTask("NA").get(0).getParentId());
+    assertEquals(2, parentTaskCache.findAll().size());
+
+    verify(parentTaskRepository, never()).findByParentId(anyLong());
+    verify(parentTaskRepository, never()).findByParentTask(anyString());
+    CacheStats stats = parentTaskCache.getStats();
+    assertEquals(3, stats.getHits());
+    assertEquals(0, stats.getMisses());
+  }
+
+  @Test
+  public void missIsReadFromRepositoryOnce() {
+    doReturn(Collections.singletonList(parentTask(3l, "Design")))
+        .when(parentTaskRepository)
+        .findByParentId(3l);
+
+    parentTaskCache.findByParentId(3l);
+    List<ParentTask> parentTaskList = parentTaskCache.findByParentId(3l);
+
+    assertEquals("Design", parentTaskList.get(0).getParentTask());
+    verify(parentTaskRepository, times(1)).findByParentId(3l);
+    assertEquals(1, parentTaskCache.getStats().getMisses());
+    assertEquals(1, parentTaskCache.getStats().getHits());
+  }
+
+  @Test
+  public void putReplacesRenamedParentTask() {
+    parentTaskCache.load();
+
+    // Updating a returned parent task must not change the cache before it is saved
+    ParentTask release = parentTaskCache.findByParentId(2l).get(0);
+    release.setParentTask("Release 2");
+    assertEquals("Release", parentTaskCache.findByParentId(2l).get(0).getParentTask());
+
+    parentTaskCache.put(release);
+
+    assertEquals("Release 2", parentTaskCache.findByParentId(2l).get(0).getParentTask());
+    assertEquals(
+        Long.valueOf(2), parentTaskCache.findByParentTask("Release 2").get(0).getParentId());
+    assertTrue(parentTaskCache.findByParentTask("Release").isEmpty());
+    assertEquals(1, parentTaskCache.getStats().getEvictions());
+  }
+
+  @Test
+  public void readsDuringReloadSeeAllParentTasks() throws Exception {
+    parentTaskCache.load();
+
+    AtomicBoolean reloading = new AtomicBoolean(true);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread reloader =
+        new Thread(
+            () -> {
+              try {
+                for (int i = 0; i < 500; i++) {
+                  parentTaskCache.load();
+                }
+              } catch (Throwable ex) {
+                failure.set(ex);
+              } finally {
+                reloading.set(false);
+              }
+            });
+    reloader.start();
+
+    while (reloading.get()) {
+      assertEquals(2, parentTaskCache.findAll().size());
+      assertEquals(1, parentTaskCache.findByParentTask("NA").size());
+      assertEquals(1, parentTaskCache.findByParentId(2l).size());
+    }
+    reloader.join();
+
+    assertNull(failure.get());
+    // Every lookup was served from the cache, none found it empty
+    verify(parentTaskRepository, never()).findByParentId(anyLong());
+    verify(parentTaskRepository, never()).findByParentTask(anyString());
+  }
+
+  @Test
+  public void putDuringReloadIsKept() {
+    // The parent task is saved after the reload read the collection without it
+    doAnswer(
+            invocation -> {
+              parentTaskCache.put(parentTask(3l, "Design"));
+              return Arrays.asList(parentTask(1l, "NA"), parentTask(2l, "Release"));
+            })
+        .when(parentTaskRepository)
+        .findAll();
+
+    parentTaskCache.load();
+
+    assertEquals(3, parentTaskCache.findAll().size());
+    assertEquals("Design", parentTaskCache.findByParentId(3l).get(0).getParentTask());
+    verify(parentTaskRepository, never()).findByParentId(anyLong());
+  }
+
+  private ParentTask parentTask(final Long parentId, final String name) {
+    ParentTask parentTask = new ParentTask(parentId, name);
+    parentTask.setId("id" + parentId);
+
+    return parentTask;
+  }
+}
@@ -0,0 +1,147 @@
+package casestudy.taskmanager.service;
+
+import casestudy.taskmanager.domains.ParentTaskStats;
+import casestudy.taskmanager.domains.Task;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ParentTaskStatsStoreTest {
+  private static final LocalDate START_DATE = LocalDate.of(2024, 1, 15);
+
+  private MongoTemplate mongoTemplate;
+  private BulkOperations bulkOperations;
+  private SimpleMeterRegistry meterRegistry;
+  private ParentTaskStatsStore parentTaskStatsStore;
+
+  @BeforeEach
+  public void setUp() {
+    mongoTemplate = mock(MongoTemplate.class);
+    bulkOperations = mock(BulkOperations.class);
+    meterRegistry = new SimpleMeterRegistry();
+    parentTaskStatsStore = new ParentTaskStatsStore(mongoTemplate, meterRegistry);
+
+    doReturn(bulkOperations)
+        .when(mongoTemplate)
+        .bulkOps(BulkOperations.BulkMode.UNORDERED, ParentTaskStats.class);
+    doReturn(BulkWriteResult.acknowledged(0, 1, 1, 1, Collections.emptyList(), List.of()))
+        .when(bulkOperations)
+        .execute();
+  }
+
+  @Test
+  public void recordSave_movesCountersToTheNewParent() {
+    parentTaskStatsStore.recordSave(task(1l, 5), task(2l, -1));
+
+    ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate, times(2))
+        .upsert(queries.capture(), updates.capture(), eq(ParentTaskStats.class));
+    for (int i = 0; i < 2; i++) {
+      Object parentId = queries.getAllValues().get(i).getQueryObject().get("_id");
+      Document inc = (Document) updates.getAllValues().get(i).getUpdateObject().get("$inc");
+      if (parentId.equals(1l)) {
+        assertEquals(counters(-1, 0, -5), inc);
+      } else {
+        assertEquals(counters(0, 1, 0), inc);
+      }
+    }
+  }
+
+  @Test
+  public void recordSave_failedUpdateIsCountedAndDoesNotFailTheSave() {
+    doThrow(new DataAccessResourceFailureException("Connection refused"))
+        .when(mongoTemplate)
+        .upsert(any(Query.class), any(Update.class), eq(ParentTaskStats.class));
+
+    assertDoesNotThrow(() -> parentTaskStatsStore.recordSave(null, task(1l, 5)));
+
+    assertEquals(
+        1, meterRegistry.counter("taskmanager.parent-task-stats.update.failed").count());
+  }
+
+  @Test
+  public void reconcile_readsCountersBeforeTheGroup() {
+    stubStoredAndComputed(Collections.emptyList(), Collections.emptyList());
+
+    parentTaskStatsStore.reconcile();
+
+    // Counters read after the $group would take in the $inc of a save the $group did not see
+    InOrder inOrder = inOrder(mongoTemplate);
+    inOrder.verify(mongoTemplate).findAll(ParentTaskStats.class);
+    inOrder.verify(mongoTemplate).aggregate(any(TypedAggregation.class), eq(ParentTaskStats.class));
+    verify(bulkOperations, never()).execute();
+  }
+
+  @Test
+  public void reconcile_onlyReplacesCountersStillHoldingTheValuesRead() {
+    stubStoredAndComputed(
+        Arrays.asList(
+            new ParentTaskStats(1l, 2, 0, 10),
+            new ParentTaskStats(2l, 1, 1, 3),
+            new ParentTaskStats(3l, 1, 0, 1)),
+        Arrays.asList(
+            new ParentTaskStats(1l, 3, 0, 15),
+            new ParentTaskStats(2l, 1, 1, 3),
+            new ParentTaskStats(4l, 1, 0, 4)));
+
+    parentTaskStatsStore.reconcile();
+
+    ArgumentCaptor<Query> updated = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+    verify(bulkOperations).updateOne(updated.capture(), update.capture());
+    assertEquals(counters(2, 0, 10).append("_id", 1l), updated.getValue().getQueryObject());
+    assertEquals(counters(3, 0, 15), update.getValue().getUpdateObject().get("$set"));
+
+    // New counters are only set on insert, counters a save created during the pass are kept
+    ArgumentCaptor<Update> inserted = ArgumentCaptor.forClass(Update.class);
+    verify(bulkOperations).upsert(any(Query.class), inserted.capture());
+    assertEquals(counters(1, 0, 4), inserted.getValue().getUpdateObject().get("$setOnInsert"));
+
+    ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+    verify(bulkOperations).remove(removed.capture());
+    assertEquals(counters(1, 0, 1).append("_id", 3l), removed.getValue().getQueryObject());
+    verify(bulkOperations).execute();
+  }
+
+  private void stubStoredAndComputed(
+      final List<ParentTaskStats> stored, final List<ParentTaskStats> computed) {
+    doReturn(stored).when(mongoTemplate).findAll(ParentTaskStats.class);
+    doReturn(new AggregationResults<>(computed, new Document()))
+        .when(mongoTemplate)
+        .aggregate(any(TypedAggregation.class), eq(ParentTaskStats.class));
+  }
+
+  private static Document counters(
+      final long activeCount, final long endedCount, final long activePrioritySum) {
+    return new Document("active_count", activeCount)
+        .append("ended_count", endedCount)
+        .append("active_priority_sum", activePrioritySum);
+  }
+
+  private static Task task(final Long parentId, final Integer priority) {
+    return new Task(10l, parentId, "Build", START_DATE, null, priority, true);
+  }
+}
@@ -0,0 +1,71 @@
+package casestudy.taskmanager.service;
+
+import casestudy.taskmanager.models.TaskModel;
+import casestudy.taskmanager.repositories.ReactiveTaskManagerRepoImpl;
+import casestudy.taskmanager.util.TaskModelFields;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.i18n.SimpleLocaleContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+public class ReactiveTaskManagerServiceTest {
+
+  @Test
+  public void parentTasksAreNotReadOnTheEventLoop() {
+    TaskManagerService taskManagerService = mock(TaskManagerService.class);
+    ReactiveTaskManagerRepoImpl reactiveTaskManagerRepo = mock(ReactiveTaskManagerRepoImpl.class);
+    ReactiveTaskManagerService reactiveTaskManagerService =
+        new ReactiveTaskManagerService(reactiveTaskManagerRepo, taskManagerService);
+
+    doReturn(TaskModelFields.ALL).when(taskManagerService).parseFields(anyString());
+    doReturn(Flux.just(taskModel(2L, false)))
+        .when(reactiveTaskManagerRepo)
+        .findTaskModels(any(Criteria.class), anySet());
+
+    // A cache miss loads the parent tasks with the blocking repository
+    AtomicBoolean readOnNonBlockingThread = new AtomicBoolean();
+    doAnswer(
+            invocation -> {
+              readOnNonBlockingThread.set(Schedulers.isInNonBlockingThread());
+              List<TaskModel> parentTaskModels = new ArrayList<>();
+              parentTaskModels.add(taskModel(1L, true));
+              return parentTaskModels;
+            })
+        .when(taskManagerService)
+        .getAllParentTaskModels();
+
+    // Subscribed from a non-blocking thread, as the WebFlux event loop does
+    StepVerifier.create(
+            reactiveTaskManagerService
+                .getAllParentsAndActiveTasks("", new SimpleLocaleContext(Locale.ENGLISH))
+                .subscribeOn(Schedulers.parallel()))
+        .expectNextMatches(TaskModel::getIsParentCollection)
+        .expectNextMatches(taskModel -> !taskModel.getIsParentCollection())
+        .verifyComplete();
+
+    assertFalse(readOnNonBlockingThread.get());
+  }
+
+  private static TaskModel taskModel(final Long taskId, final boolean isParentCollection) {
+    TaskModel taskModel = new TaskModel();
+    taskModel.setTaskId(taskId);
+    taskModel.setIsParentCollection(isParentCollection);
+
+    return taskModel;
+  }
+}
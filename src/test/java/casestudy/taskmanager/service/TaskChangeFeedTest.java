@@ -0,0 +1,101 @@
+package casestudy.taskmanager.service;
+
+import casestudy.taskmanager.models.TaskChangeEvent;
+import casestudy.taskmanager.models.TaskModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskChangeFeedTest {
+  private ThreadPoolTaskExecutor executor;
+  private SimpleMeterRegistry meterRegistry;
+  private TaskChangeFeed taskChangeFeed;
+
+  @BeforeEach
+  public void setUp() {
+    // A single thread, so a stalled write holds the whole pool
+    executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setQueueCapacity(100);
+    executor.initialize();
+    meterRegistry = new SimpleMeterRegistry();
+    taskChangeFeed =
+        new TaskChangeFeed(
+            new ObjectMapper(), executor, meterRegistry, 64, "drop", 60000, 100, 30, 50, 4);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  public void stalledWriteIsDisconnectedAndOthersKeepReceiving() throws Exception {
+    StalledEmitter stalled = new StalledEmitter();
+    taskChangeFeed.subscribe(stalled);
+    taskChangeFeed.publish(TaskChangeEvent.TASK_ADDED, taskModel(1L));
+    assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+
+    CountDownLatch received = new CountDownLatch(1);
+    taskChangeFeed.subscribe(
+        new SseEmitter() {
+          @Override
+          public void send(final SseEventBuilder builder) {
+            received.countDown();
+          }
+        });
+    taskChangeFeed.publish(TaskChangeEvent.TASK_ADDED, taskModel(2L));
+
+    // Past the send timeout, the heartbeat disconnects the stalled subscriber
+    Thread.sleep(100);
+    taskChangeFeed.heartbeat();
+
+    assertTrue(received.await(5, TimeUnit.SECONDS));
+    assertEquals(1, taskChangeFeed.getSubscriberCount());
+    assertEquals(1.0, meterRegistry.counter("taskmanager.change-feed.stalled").count());
+
+    // Once the blocked write returns, the subscriber is completed and the thread given back
+    stalled.release.countDown();
+    assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+    assertEquals(1, executor.getCorePoolSize());
+  }
+
+  private static TaskModel taskModel(final Long taskId) {
+    TaskModel taskModel = new TaskModel();
+    taskModel.setTaskId(taskId);
+
+    return taskModel;
+  }
+
+  private static class StalledEmitter extends SseEmitter {
+    private final CountDownLatch sending = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch completed = new CountDownLatch(1);
+
+    @Override
+    public void send(final SseEventBuilder builder) {
+      sending.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public synchronized void complete() {
+      completed.countDown();
+    }
+  }
+}
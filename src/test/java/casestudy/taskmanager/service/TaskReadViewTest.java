@@ -0,0 +1,118 @@
+package casestudy.taskmanager.service;
+
+import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskModel;
+import casestudy.taskmanager.repositories.ParentTaskRepository;
+import casestudy.taskmanager.repositories.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class TaskReadViewTest {
+  private static final LocalDate START_DATE = LocalDate.of(2024, 1, 15);
+
+  private TaskRepository taskRepository;
+  private TaskReadView taskReadView;
+
+  @BeforeEach
+  public void setUp() {
+    taskRepository = mock(TaskRepository.class);
+    ParentTaskRepository parentTaskRepository = mock(ParentTaskRepository.class);
+    taskReadView = new TaskReadView(taskRepository, parentTaskRepository);
+
+    doReturn(Collections.singletonList(parentTask(1l, "Release")))
+        .when(parentTaskRepository)
+        .findAll();
+    doReturn(
+            Arrays.asList(
+                task(12l, 10l, "Test", 5, false),
+                task(10l, 1l, "Build", 10, true),
+                task(11l, 1l, "Deploy", 20, true)))
+        .when(taskRepository)
+        .findAll();
+  }
+
+  @Test
+  public void loadJoinsParentNamesInTaskIdOrder() {
+    assertFalse(taskReadView.isLoaded());
+    taskReadView.putTask(task(13l, 1l, "Ignored", 1, true));
+    assertTrue(taskReadView.findAll().isEmpty());
+
+    taskReadView.load();
+
+    List<TaskModel> taskModels = taskReadView.findAll();
+    assertEquals(
+        Arrays.asList(10l, 11l, 12l),
+        taskModels.stream().map(TaskModel::getTaskId).collect(Collectors.toList()));
+    assertEquals("Release", taskModels.get(0).getParentTask());
+    assertEquals("Build", taskModels.get(2).getParentTask());
+    verify(taskRepository, times(1)).findAll();
+  }
+
+  @Test
+  public void renamesAreJoinedIntoChildren() {
+    taskReadView.load();
+
+    taskReadView.putParentTask(parentTask(1l, "Release 2"));
+    taskReadView.putTask(task(10l, 1l, "Build all", 10, true));
+
+    assertEquals("Release 2", taskReadView.findByTaskId(11l).get().getParentTask());
+    assertEquals("Build all", taskReadView.findByTaskId(12l).get().getParentTask());
+
+    // Updating a returned task must not change the view
+    taskReadView.findByTaskId(12l).get().setTask("Changed");
+    assertEquals("Test", taskReadView.findByTaskId(12l).get().getTask());
+
+    taskReadView.removeTask("id10");
+    assertFalse(taskReadView.findByTaskId(10l).isPresent());
+    assertEquals(null, taskReadView.findByTaskId(12l).get().getParentTask());
+  }
+
+  @Test
+  public void searchFilterMatchesLikeSearchAggregation() {
+    taskReadView.load();
+
+    TaskModel search = new TaskModel();
+    search.setParentTask(" release ");
+    search.setPriorityFrom(15);
+    search.setPriorityTo(30);
+    List<TaskModel> result = taskReadView.find(TaskReadView.searchFilter(search));
+    assertEquals(1, result.size());
+    assertEquals("Deploy", result.get(0).getTask());
+
+    // A range with a bound of 0 is ignored, as in the search aggregation
+    search.setPriorityFrom(0);
+    search.setStartDate(START_DATE);
+    assertEquals(2, taskReadView.find(TaskReadView.searchFilter(search)).size());
+  }
+
+  private Task task(
+      final Long taskId,
+      final Long parentId,
+      final String name,
+      final Integer priority,
+      final Boolean isParentCollection) {
+    Task task = new Task(taskId, parentId, name, START_DATE, null, priority, isParentCollection);
+    task.setId("id" + taskId);
+
+    return task;
+  }
+
+  private ParentTask parentTask(final Long parentId, final String name) {
+    ParentTask parentTask = new ParentTask(parentId, name);
+    parentTask.setId("pid" + parentId);
+
+    return parentTask;
+  }
+}
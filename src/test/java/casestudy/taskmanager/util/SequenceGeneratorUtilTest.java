@@ -0,0 +1,112 @@
+package casestudy.taskmanager.util;
+
+import casestudy.taskmanager.domains.DatabaseSequence;
+import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.domains.Task;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class SequenceGeneratorUtilTest {
+  private static final int WRITERS = 64;
+  private static final int IDS_PER_WRITER = 500;
+
+  private final Map<String, Long> counters = new ConcurrentHashMap<>();
+  private final AtomicInteger roundTrips = new AtomicInteger();
+
+  @Test
+  public void noDuplicatesUnderParallelWritersOnTwoNodes() throws Exception {
+    MongoTemplate mongoTemplate = fakeCounterCollection();
+    // Two generators sharing the same counter document act as two application nodes
+    SequenceGeneratorUtil nodeOne = new SequenceGeneratorUtil(50);
+    SequenceGeneratorUtil nodeTwo = new SequenceGeneratorUtil(7);
+
+    ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<List<Long>>> futures = new ArrayList<>();
+    for (int writer = 0; writer < WRITERS; writer++) {
+      final SequenceGeneratorUtil generator = writer % 2 == 0 ? nodeOne : nodeTwo;
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                List<Long> ids = new ArrayList<>(IDS_PER_WRITER);
+                for (int i = 0; i < IDS_PER_WRITER; i++) {
+                  ids.add(generator.generateSequence(Task.SEQUENCE_NAME, mongoTemplate));
+                }
+                return ids;
+              }));
+    }
+    start.countDown();
+
+    Set<Long> allIds = ConcurrentHashMap.newKeySet();
+    for (Future<List<Long>> future : futures) {
+      for (Long id : future.get(30, TimeUnit.SECONDS)) {
+        assertTrue(allIds.add(id), "Duplicate id " + id);
+      }
+    }
+    executor.shutdown();
+
+    assertEquals(WRITERS * IDS_PER_WRITER, allIds.size());
+    assertTrue(roundTrips.get() < WRITERS * IDS_PER_WRITER / 5);
+  }
+
+  @Test
+  public void sequencesAreKeptPerName() {
+    MongoTemplate mongoTemplate = fakeCounterCollection();
+    SequenceGeneratorUtil generator = new SequenceGeneratorUtil(10);
+
+    assertEquals(1L, generator.generateSequence(Task.SEQUENCE_NAME, mongoTemplate));
+    assertEquals(2L, generator.generateSequence(Task.SEQUENCE_NAME, mongoTemplate));
+    assertEquals(1L, generator.generateSequence(ParentTask.SEQUENCE_NAME, mongoTemplate));
+    assertEquals(2, roundTrips.get());
+  }
+
+  private MongoTemplate fakeCounterCollection() {
+    MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    doAnswer(
+            invocation -> {
+              roundTrips.incrementAndGet();
+              Query query = invocation.getArgument(0);
+              Update update = invocation.getArgument(1);
+              String seqName = (String) query.getQueryObject().get("_id");
+              long increment =
+                  ((Number) ((Document) update.getUpdateObject().get("$inc")).get(seqName))
+                      .longValue();
+
+              long value = counters.merge(seqName, increment, Long::sum);
+              DatabaseSequence sequence = new DatabaseSequence();
+              sequence.setId(seqName);
+              if (ParentTask.SEQUENCE_NAME.equals(seqName)) {
+                sequence.setParentTaskSequence(value);
+              } else {
+                sequence.setTaskSequence(value);
+              }
+              return sequence;
+            })
+        .when(mongoTemplate)
+        .findAndModify(
+            any(Query.class),
+            any(Update.class),
+            any(FindAndModifyOptions.class),
+            eq(DatabaseSequence.class));
+    return mongoTemplate;
+  }
+}
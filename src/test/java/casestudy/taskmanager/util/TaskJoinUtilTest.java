@@ -0,0 +1,55 @@
+package casestudy.taskmanager.util;
+
+import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskModel;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskJoinUtilTest {
+
+  @Test
+  public void joinParentsResolvesParentTaskAndTaskAsParent() {
+    List<ParentTask> parentTaskList =
+        Arrays.asList(
+            new ParentTask(1l, "Parent One"),
+            new ParentTask(2l, "Parent Two"),
+            new ParentTask(2l, "Duplicate Parent Two"));
+    List<Task> taskList =
+        Arrays.asList(
+            new Task(1l, 2l, "Task One", LocalDate.now(), null, 10, true),
+            new Task(2l, 1l, "Task Two", LocalDate.now(), null, 5, false),
+            new Task(3l, 99l, "Task Three", LocalDate.now(), null, 1, true));
+
+    List<TaskModel> taskModelList = TaskJoinUtil.joinParents(parentTaskList, taskList);
+
+    assertEquals(3, taskModelList.size());
+    assertEquals("Parent Two", taskModelList.get(0).getParentTask());
+    assertEquals("Task One", taskModelList.get(1).getParentTask());
+    assertNull(taskModelList.get(2).getParentTask());
+    assertEquals(Long.valueOf(3), taskModelList.get(2).getTaskId());
+  }
+
+  @Test
+  public void longIndexMapKeepsFirstValueAndGrows() {
+    LongIndexMap<String> index = new LongIndexMap<>(0);
+    List<Long> keys = new ArrayList<>();
+    for (long key = -500; key < 5000; key += 3) {
+      assertNull(index.putIfAbsent(key, "v" + key));
+      keys.add(key);
+    }
+
+    assertEquals("v1", index.putIfAbsent(1, "other"));
+    assertEquals(keys.size(), index.size());
+    for (Long key : keys) {
+      assertEquals("v" + key, index.get(key));
+    }
+    assertFalse(index.containsKey(2));
+  }
+}
@@ -0,0 +1,41 @@
+package casestudy.taskmanager.util;
+
+import casestudy.taskmanager.models.TaskModel;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskModelFieldsTest {
+
+  @Test
+  public void parseKeepsKnownFieldsOnly() {
+    assertSame(TaskModelFields.ALL, TaskModelFields.parse(null));
+    assertSame(TaskModelFields.ALL, TaskModelFields.parse(" "));
+    assertEquals(
+        new LinkedHashSet<>(Arrays.asList("taskId", "priority")),
+        TaskModelFields.parse("taskId, priority,"));
+    assertNull(TaskModelFields.parse("taskId,owner"));
+  }
+
+  @Test
+  public void retainClearsFieldsLeftOut() {
+    TaskModel taskModel = new TaskModel();
+    taskModel.setTaskId(1l);
+    taskModel.setTask("Build");
+    taskModel.setPriority(5);
+    taskModel.setParentTask("Release");
+    taskModel.setStartDate(LocalDate.now());
+
+    TaskModelFields.retain(taskModel, TaskModelFields.parse("taskId,task,priority"));
+
+    assertEquals(Long.valueOf(1), taskModel.getTaskId());
+    assertEquals("Build", taskModel.getTask());
+    assertEquals(Integer.valueOf(5), taskModel.getPriority());
+    assertNull(taskModel.getParentTask());
+    assertNull(taskModel.getStartDate());
+  }
+}
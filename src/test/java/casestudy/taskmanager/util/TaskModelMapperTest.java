@@ -0,0 +1,81 @@
+package casestudy.taskmanager.util;
+
+import casestudy.taskmanager.domains.ParentTask;
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskModelMapperTest {
+  private final ObjectMapper objectMapper =
+      new ObjectMapper()
+          .registerModule(new JavaTimeModule())
+          .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+  @Test
+  public void copiesTheSamePropertiesAsBeanUtils() throws Exception {
+    final Task task = new Task(7l, 3l, "Task", LocalDate.now(), LocalDate.now(), 5, false);
+    final Task nullTask = new Task();
+    final ParentTask parentTask = new ParentTask(4l, "Parent Task");
+    final ParentTask nullParentTask = new ParentTask();
+
+    for (Task source : new Task[] {task, nullTask}) {
+      TaskModel mapped = filledTaskModel();
+      TaskModelMapper.copy(source, mapped);
+      TaskModel copied = filledTaskModel();
+      BeanUtils.copyProperties(source, copied);
+
+      assertEquals(toJson(copied), toJson(mapped));
+    }
+
+    for (ParentTask source : new ParentTask[] {parentTask, nullParentTask}) {
+      TaskModel mapped = filledTaskModel();
+      TaskModelMapper.copy(source, mapped);
+      TaskModel copied = filledTaskModel();
+      BeanUtils.copyProperties(source, copied);
+
+      assertEquals(toJson(copied), toJson(mapped));
+    }
+  }
+
+  @Test
+  public void parentTaskCopiedAfterTaskOverwritesParentId() {
+    TaskModel taskModel = new TaskModel();
+    TaskModelMapper.copy(new Task(7l, 3l, "Task", LocalDate.now(), null, 5, true), taskModel);
+    TaskModelMapper.copy(new ParentTask(4l, "Parent Task"), taskModel);
+
+    assertEquals(Long.valueOf(4), taskModel.getParentId());
+    assertEquals("Parent Task", taskModel.getParentTask());
+    assertEquals("Task", taskModel.getTask());
+    assertNull(taskModel.getEndDate());
+  }
+
+  private TaskModel filledTaskModel() {
+    TaskModel taskModel = new TaskModel();
+    taskModel.setTaskId(1l);
+    taskModel.setTask("Previous Task");
+    taskModel.setPriority(1);
+    taskModel.setParentId(1l);
+    taskModel.setParentTask("Previous Parent Task");
+    taskModel.setStartDate(LocalDate.of(2020, 1, 1));
+    taskModel.setEndDate(LocalDate.of(2020, 1, 2));
+    taskModel.setPriorityFrom(1);
+    taskModel.setPriorityTo(2);
+    taskModel.setIsParentCollection(true);
+    taskModel.setSearchText("previous");
+    taskModel.setTextScore(1.0);
+
+    return taskModel;
+  }
+
+  private String toJson(final TaskModel taskModel) throws Exception {
+    return objectMapper.writeValueAsString(taskModel);
+  }
+}
@@ -0,0 +1,46 @@
+package casestudy.taskmanager.util;
+
+import casestudy.taskmanager.domains.Task;
+import casestudy.taskmanager.models.TaskTreeNode;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskTreeUtilTest {
+  private final Task root = new Task(1l, 7l, "Root", LocalDate.now(), null, 1, true);
+  private final Task child = new Task(2l, 1l, "Child", LocalDate.now(), null, 2, false);
+  private final Task grandChild = new Task(3l, 2l, "Grand Child", LocalDate.now(), null, 3, false);
+  private final Task otherChild = new Task(4l, 1l, "Other Child", LocalDate.now(), null, 4, false);
+
+  @Test
+  public void buildTreeNestsDescendantsByParentLink() {
+    TaskTreeNode tree =
+        TaskTreeUtil.buildTree(root, "Parent", Arrays.asList(otherChild, grandChild, child));
+
+    assertEquals("Parent", tree.getTask().getParentTask());
+    assertEquals(2, tree.getSubTasks().size());
+    assertEquals(Long.valueOf(2), tree.getSubTasks().get(0).getTask().getTaskId());
+    assertEquals(Long.valueOf(4), tree.getSubTasks().get(1).getTask().getTaskId());
+
+    TaskTreeNode grandChildNode = tree.getSubTasks().get(0).getSubTasks().get(0);
+    assertEquals("Child", grandChildNode.getTask().getParentTask());
+    assertEquals(2, grandChildNode.getDepth());
+    assertTrue(grandChildNode.getSubTasks().isEmpty());
+  }
+
+  @Test
+  public void ancestorChainStopsAtParentTaskAndDepth() {
+    // Task 7 is unrelated, the parent id 7 of the root refers to a parent task
+    Task unrelated = new Task(7l, null, "Unrelated", LocalDate.now(), null, 1, false);
+    List<Task> candidates = Arrays.asList(child, root, unrelated);
+
+    List<Task> ancestors = TaskTreeUtil.ancestorChain(grandChild, candidates, 10);
+    assertEquals(Arrays.asList(child, root), ancestors);
+
+    assertEquals(Arrays.asList(child), TaskTreeUtil.ancestorChain(grandChild, candidates, 1));
+  }
+}
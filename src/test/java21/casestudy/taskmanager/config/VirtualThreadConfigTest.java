@@ -0,0 +1,28 @@
+package casestudy.taskmanager.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadConfigTest {
+  private final VirtualThreadConfig virtualThreadConfig = new VirtualThreadConfig();
+
+  @AfterEach
+  void tearDown() {
+    virtualThreadConfig.shutdown();
+  }
+
+  @Test
+  void applicationTaskExecutorRunsOnVirtualThreads() throws Exception {
+    boolean virtual =
+        virtualThreadConfig
+            .applicationTaskExecutor()
+            .submit(() -> Thread.currentThread().isVirtual())
+            .get(5, TimeUnit.SECONDS);
+
+    assertTrue(virtual);
+  }
+}